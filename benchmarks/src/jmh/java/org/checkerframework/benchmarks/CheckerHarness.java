@@ -0,0 +1,337 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ArrayAccessTree;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.CompoundAssignmentTree;
+import com.sun.source.tree.ConditionalExpressionTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.NewClassTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.TypeCastTree;
+import com.sun.source.tree.UnaryTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TreeScanner;
+
+import org.checkerframework.checker.initialization.InitializationChecker;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the benchmark corpus with a checker and keeps the resulting trees and type factory
+ * alive, so that individual benchmarks can measure a single hot path of the Checker Framework
+ * against fully attributed, fully type-checked code.
+ *
+ * <p>The corpus is a fixed set of sample sources stored as resources under {@code corpus/}. It
+ * never changes between runs, so results from different commits are comparable.
+ */
+public final class CheckerHarness {
+
+    /** The names of the corpus files, relative to the {@code corpus/} resource directory. */
+    public static final List<String> CORPUS_FILES =
+            Collections.unmodifiableList(
+                    Arrays.asList(
+                            "CollectionClient.java", "Generics.java", "Loops.java", "Switches.java"));
+
+    /** The checker that type-checked the corpus. */
+    public final BaseTypeChecker checker;
+
+    /**
+     * The type factory of {@link #checker}, or of its target subchecker if {@link #checker} is an
+     * {@link InitializationChecker}.
+     */
+    public final GenericAnnotatedTypeFactory<?, ?, ?, ?> atypeFactory;
+
+    /** The compilation units of the corpus. */
+    public final List<CompilationUnitTree> roots;
+
+    /**
+     * Compiles the corpus with the given checker.
+     *
+     * @param checkerClassName the fully-qualified name of a {@link BaseTypeChecker} subclass
+     * @param options additional javac options, such as {@code -A} options for the checker
+     */
+    public CheckerHarness(String checkerClassName, String... options) {
+        try {
+            checker =
+                    Class.forName(checkerClassName)
+                            .asSubclass(BaseTypeChecker.class)
+                            .getDeclaredConstructor()
+                            .newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot instantiate " + checkerClassName, e);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager =
+                compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        List<String> javacOptions = new ArrayList<>();
+        javacOptions.add("-AnoJreVersionCheck");
+        javacOptions.add("-AsuppressWarnings=all");
+        javacOptions.addAll(Arrays.asList(options));
+
+        JavacTask task =
+                (JavacTask)
+                        compiler.getTask(
+                                null,
+                                fileManager,
+                                diagnostics,
+                                javacOptions,
+                                null,
+                                corpusSources());
+        task.setProcessors(Collections.singletonList(checker));
+        List<CompilationUnitTree> parsed = new ArrayList<>();
+        try {
+            for (CompilationUnitTree root : task.parse()) {
+                parsed.add(root);
+            }
+            task.analyze();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        roots = Collections.unmodifiableList(parsed);
+        if (checker instanceof InitializationChecker) {
+            // The parent checker only checks initialization; the qualifiers of interest (such as
+            // nullness) are handled by the target subchecker.
+            atypeFactory =
+                    checker.getTypeFactoryOfSubcheckerOrNull(
+                            ((InitializationChecker) checker).getTargetCheckerClass());
+        } else {
+            atypeFactory = checker.getTypeFactory();
+        }
+    }
+
+    /**
+     * Returns the processing environment of the checker.
+     *
+     * @return the processing environment of the checker
+     */
+    public ProcessingEnvironment getProcessingEnvironment() {
+        return checker.getProcessingEnvironment();
+    }
+
+    /**
+     * Returns the top-level classes of a compilation unit.
+     *
+     * @param root a compilation unit
+     * @return the top-level classes of {@code root}
+     */
+    public static List<ClassTree> topLevelClasses(CompilationUnitTree root) {
+        List<ClassTree> result = new ArrayList<>();
+        for (Tree decl : root.getTypeDecls()) {
+            if (decl instanceof ClassTree) {
+                result.add((ClassTree) decl);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all methods with a body in a compilation unit, paired with their enclosing class.
+     *
+     * @param root a compilation unit
+     * @return each method with a body and the class that directly encloses it
+     */
+    public static List<MethodInClass> methods(CompilationUnitTree root) {
+        List<MethodInClass> result = new ArrayList<>();
+        new TreeScanner<Void, ClassTree>() {
+            @Override
+            public Void visitClass(ClassTree tree, ClassTree enclosing) {
+                return super.visitClass(tree, tree);
+            }
+
+            @Override
+            public Void visitMethod(MethodTree tree, ClassTree enclosing) {
+                if (tree.getBody() != null) {
+                    result.add(new MethodInClass(tree, enclosing));
+                }
+                return super.visitMethod(tree, enclosing);
+            }
+        }.scan(root, null);
+        return result;
+    }
+
+    /**
+     * Returns the value-computing expressions of a compilation unit, in source order: method
+     * invocations, object creations, assignments, operators, casts, array accesses and literals.
+     * Names that occur in type positions are not included.
+     *
+     * @param root a compilation unit
+     * @return the value-computing expressions in {@code root}
+     */
+    public static List<ExpressionTree> expressions(CompilationUnitTree root) {
+        List<ExpressionTree> result = new ArrayList<>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitMethodInvocation(MethodInvocationTree tree, Void p) {
+                result.add(tree);
+                return super.visitMethodInvocation(tree, p);
+            }
+
+            @Override
+            public Void visitNewClass(NewClassTree tree, Void p) {
+                result.add(tree);
+                return super.visitNewClass(tree, p);
+            }
+
+            @Override
+            public Void visitAssignment(AssignmentTree tree, Void p) {
+                result.add(tree);
+                return super.visitAssignment(tree, p);
+            }
+
+            @Override
+            public Void visitCompoundAssignment(CompoundAssignmentTree tree, Void p) {
+                result.add(tree);
+                return super.visitCompoundAssignment(tree, p);
+            }
+
+            @Override
+            public Void visitBinary(BinaryTree tree, Void p) {
+                result.add(tree);
+                return super.visitBinary(tree, p);
+            }
+
+            @Override
+            public Void visitUnary(UnaryTree tree, Void p) {
+                result.add(tree);
+                return super.visitUnary(tree, p);
+            }
+
+            @Override
+            public Void visitConditionalExpression(ConditionalExpressionTree tree, Void p) {
+                result.add(tree);
+                return super.visitConditionalExpression(tree, p);
+            }
+
+            @Override
+            public Void visitTypeCast(TypeCastTree tree, Void p) {
+                result.add(tree);
+                return super.visitTypeCast(tree, p);
+            }
+
+            @Override
+            public Void visitArrayAccess(ArrayAccessTree tree, Void p) {
+                result.add(tree);
+                return super.visitArrayAccess(tree, p);
+            }
+
+            @Override
+            public Void visitLiteral(LiteralTree tree, Void p) {
+                result.add(tree);
+                return super.visitLiteral(tree, p);
+            }
+        }.scan(root, null);
+        return result;
+    }
+
+    /**
+     * Returns all variable declarations that have an initializer.
+     *
+     * @param root a compilation unit
+     * @return all variable declarations with an initializer in {@code root}
+     */
+    public static List<VariableTree> initializedVariables(CompilationUnitTree root) {
+        List<VariableTree> result = new ArrayList<>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitVariable(VariableTree tree, Void p) {
+                if (tree.getInitializer() != null) {
+                    result.add(tree);
+                }
+                return super.visitVariable(tree, p);
+            }
+        }.scan(root, null);
+        return result;
+    }
+
+    /**
+     * Reads a resource into a string.
+     *
+     * @param name the resource name, relative to this class
+     * @return the contents of the resource
+     */
+    public static String readResource(String name) {
+        try (InputStream in = CheckerHarness.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing benchmark resource " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the corpus as in-memory source files.
+     *
+     * @return the corpus as in-memory source files
+     */
+    private static List<JavaFileObject> corpusSources() {
+        List<JavaFileObject> result = new ArrayList<>(CORPUS_FILES.size());
+        for (String file : CORPUS_FILES) {
+            String contents = readResource("/corpus/" + file);
+            result.add(
+                    new SimpleJavaFileObject(
+                            URI.create("string:///corpus/" + file), JavaFileObject.Kind.SOURCE) {
+                        @Override
+                        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                            return contents;
+                        }
+                    });
+        }
+        return result;
+    }
+
+    /** A method together with the class that directly encloses it. */
+    public static final class MethodInClass {
+        /** The method. */
+        public final MethodTree method;
+
+        /** The class that directly encloses {@link #method}. */
+        public final ClassTree enclosingClass;
+
+        /**
+         * Creates a new MethodInClass.
+         *
+         * @param method the method
+         * @param enclosingClass the class that directly encloses {@code method}
+         */
+        MethodInClass(MethodTree method, ClassTree enclosingClass) {
+            this.method = method;
+            this.enclosingClass = enclosingClass;
+        }
+    }
+}
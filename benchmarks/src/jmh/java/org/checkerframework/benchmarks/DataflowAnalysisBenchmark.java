@@ -0,0 +1,114 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.CompilationUnitTree;
+
+import org.checkerframework.dataflow.analysis.BackwardAnalysisImpl;
+import org.checkerframework.dataflow.analysis.ForwardAnalysisImpl;
+import org.checkerframework.dataflow.analysis.UnusedAbstractValue;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.dataflow.cfg.builder.CFGBuilder;
+import org.checkerframework.dataflow.constantpropagation.Constant;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationStore;
+import org.checkerframework.dataflow.constantpropagation.ConstantPropagationTransfer;
+import org.checkerframework.dataflow.livevariable.LiveVarStore;
+import org.checkerframework.dataflow.livevariable.LiveVarTransfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.processing.ProcessingEnvironment;
+
+/**
+ * Measures control-flow graph construction and the fixpoint iteration of {@code
+ * ForwardAnalysisImpl.performAnalysis} (and, for comparison, {@code
+ * BackwardAnalysisImpl.performAnalysis}) on every method of the corpus.
+ *
+ * <p>The analyses are the checker-independent constant-propagation and live-variable analyses of
+ * the dataflow framework, so this benchmark isolates the cost of the dataflow engine itself from
+ * the cost of any checker's transfer function.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class DataflowAnalysisBenchmark {
+
+    /** The compiled corpus. */
+    private CheckerHarness harness;
+
+    /** The control-flow graphs of all methods of the corpus. */
+    private final List<ControlFlowGraph> cfgs = new ArrayList<>();
+
+    /** Compiles the corpus and builds the control-flow graph of each method. */
+    @Setup
+    public void setup() {
+        // Any checker will do; only the javac trees and the processing environment are used.
+        harness = new CheckerHarness("org.checkerframework.common.value.ValueChecker");
+        buildAll(cfgs);
+    }
+
+    /**
+     * Builds the control-flow graph of every method of the corpus.
+     *
+     * @param result the list to which to add the control-flow graphs
+     */
+    private void buildAll(List<ControlFlowGraph> result) {
+        ProcessingEnvironment env = harness.getProcessingEnvironment();
+        for (CompilationUnitTree root : harness.roots) {
+            for (CheckerHarness.MethodInClass m : CheckerHarness.methods(root)) {
+                UnderlyingAST ast = new UnderlyingAST.CFGMethod(m.method, m.enclosingClass);
+                result.add(CFGBuilder.build(root, ast, false, false, env));
+            }
+        }
+    }
+
+    /**
+     * Builds the control-flow graph of every method.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void buildCFGs(Blackhole bh) {
+        List<ControlFlowGraph> result = new ArrayList<>(cfgs.size());
+        buildAll(result);
+        bh.consume(result);
+    }
+
+    /**
+     * Runs constant propagation, a forward analysis, on every method.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void forwardConstantPropagation(Blackhole bh) {
+        ConstantPropagationTransfer transfer = new ConstantPropagationTransfer();
+        for (ControlFlowGraph cfg : cfgs) {
+            ForwardAnalysisImpl<Constant, ConstantPropagationStore, ConstantPropagationTransfer>
+                    analysis = new ForwardAnalysisImpl<>(transfer);
+            analysis.performAnalysis(cfg);
+            bh.consume(analysis.getResult());
+        }
+    }
+
+    /**
+     * Runs live-variable analysis, a backward analysis, on every method.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void backwardLiveVariables(Blackhole bh) {
+        LiveVarTransfer transfer = new LiveVarTransfer();
+        for (ControlFlowGraph cfg : cfgs) {
+            BackwardAnalysisImpl<UnusedAbstractValue, LiveVarStore, LiveVarTransfer> analysis =
+                    new BackwardAnalysisImpl<>(transfer);
+            analysis.performAnalysis(cfg);
+            bh.consume(analysis.getResult());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@code AnnotatedTypeFactory.getAnnotatedType(Tree)} on every expression of the corpus.
+ *
+ * <p>Each invocation resets the type factory to each compilation unit via {@code setRoot}, which
+ * clears the factory's caches and forces dataflow analysis to be re-run for every class, as it is
+ * during a normal compilation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class GetAnnotatedTypeBenchmark {
+
+    /** The checker to benchmark. */
+    @Param({
+        "org.checkerframework.checker.nullness.NullnessChecker",
+        "org.checkerframework.common.value.ValueChecker"
+    })
+    public String checker;
+
+    /** The compiled corpus. */
+    private CheckerHarness harness;
+
+    /** The expressions of each compilation unit, parallel to {@code harness.roots}. */
+    private List<List<ExpressionTree>> expressions;
+
+    /** Compiles the corpus. */
+    @Setup
+    public void setup() {
+        harness = new CheckerHarness(checker);
+        expressions = new ArrayList<>(harness.roots.size());
+        for (CompilationUnitTree root : harness.roots) {
+            expressions.add(CheckerHarness.expressions(root));
+        }
+    }
+
+    /**
+     * Computes the annotated type of every expression in the corpus, starting from empty caches.
+     *
+     * @param bh the blackhole that consumes the computed types
+     */
+    @Benchmark
+    public void getAnnotatedTypeColdCaches(Blackhole bh) {
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> atypeFactory = harness.atypeFactory;
+        for (int i = 0; i < harness.roots.size(); i++) {
+            CompilationUnitTree root = harness.roots.get(i);
+            atypeFactory.setRoot(root);
+            for (ClassTree classTree : CheckerHarness.topLevelClasses(root)) {
+                // Triggers dataflow analysis of the class, as BaseTypeVisitor.visitClass does.
+                bh.consume(atypeFactory.getAnnotatedType(classTree));
+            }
+            for (ExpressionTree expr : expressions.get(i)) {
+                bh.consume(atypeFactory.getAnnotatedType(expr));
+            }
+        }
+    }
+
+    /**
+     * Computes the annotated type of every expression in the corpus twice per compilation unit;
+     * the second pass is served mostly from the type factory's caches.
+     *
+     * @param bh the blackhole that consumes the computed types
+     */
+    @Benchmark
+    public void getAnnotatedTypeWarmCaches(Blackhole bh) {
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> atypeFactory = harness.atypeFactory;
+        for (int i = 0; i < harness.roots.size(); i++) {
+            CompilationUnitTree root = harness.roots.get(i);
+            atypeFactory.setRoot(root);
+            for (ClassTree classTree : CheckerHarness.topLevelClasses(root)) {
+                bh.consume(atypeFactory.getAnnotatedType(classTree));
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                for (ExpressionTree expr : expressions.get(i)) {
+                    bh.consume(atypeFactory.getAnnotatedType(expr));
+                }
+            }
+        }
+    }
+}
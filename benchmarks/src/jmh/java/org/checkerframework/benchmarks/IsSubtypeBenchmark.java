@@ -0,0 +1,76 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.VariableTree;
+
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.checkerframework.framework.type.TypeHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@code DefaultTypeHierarchy.isSubtype} on the pairs of types that the visitor checks
+ * for variable initializers in the corpus: the type of the initializer expression against the
+ * declared type of the variable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class IsSubtypeBenchmark {
+
+    /** The checker to benchmark. */
+    @Param({
+        "org.checkerframework.checker.nullness.NullnessChecker",
+        "org.checkerframework.common.value.ValueChecker"
+    })
+    public String checker;
+
+    /** The compiled corpus. */
+    private CheckerHarness harness;
+
+    /** The subtypes to check; parallel to {@link #supertypes}. */
+    private final List<AnnotatedTypeMirror> subtypes = new ArrayList<>();
+
+    /** The supertypes to check; parallel to {@link #subtypes}. */
+    private final List<AnnotatedTypeMirror> supertypes = new ArrayList<>();
+
+    /** Compiles the corpus and computes the pairs of types to compare. */
+    @Setup
+    public void setup() {
+        harness = new CheckerHarness(checker);
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> atypeFactory = harness.atypeFactory;
+        for (CompilationUnitTree root : harness.roots) {
+            atypeFactory.setRoot(root);
+            for (ClassTree classTree : CheckerHarness.topLevelClasses(root)) {
+                atypeFactory.getAnnotatedType(classTree);
+            }
+            for (VariableTree var : CheckerHarness.initializedVariables(root)) {
+                subtypes.add(atypeFactory.getAnnotatedType(var.getInitializer()));
+                supertypes.add(atypeFactory.getAnnotatedTypeLhs(var));
+            }
+        }
+    }
+
+    /**
+     * Checks every pair of types once.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void isSubtype(Blackhole bh) {
+        TypeHierarchy typeHierarchy = harness.atypeFactory.getTypeHierarchy();
+        for (int i = 0; i < subtypes.size(); i++) {
+            bh.consume(typeHierarchy.isSubtype(subtypes.get(i), supertypes.get(i)));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.checkerframework.benchmarks;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.StatementTree;
+
+import org.checkerframework.framework.flow.CFAbstractStore;
+import org.checkerframework.framework.flow.CFAbstractValue;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@code CFAbstractStore.leastUpperBound}, {@code CFAbstractStore.copy} and {@code
+ * CFAbstractStore.equals} on the stores that dataflow analysis computes for the corpus.
+ *
+ * <p>The stores are the stores before each top-level statement of each method, and the regular
+ * exit store of each method. Adjacent stores of a method are merged with each other, which mimics
+ * the merges at join points during the fixpoint iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class StoreLubBenchmark {
+
+    /** The checker to benchmark. */
+    @Param({
+        "org.checkerframework.checker.nullness.NullnessChecker",
+        "org.checkerframework.common.value.ValueChecker"
+    })
+    public String checker;
+
+    /** The stores, grouped by method. Each inner list has at least two elements. */
+    private List<List<CFAbstractStore<?, ?>>> stores;
+
+    /** Compiles the corpus and collects the stores. */
+    @Setup
+    public void setup() {
+        CheckerHarness harness = new CheckerHarness(checker);
+        stores = collectStores(harness, harness.atypeFactory);
+    }
+
+    /**
+     * Collects the stores of every method of the corpus.
+     *
+     * @param <V> the abstract value type
+     * @param <S> the store type
+     * @param harness the compiled corpus
+     * @param atypeFactory the type factory of the checker
+     * @return the stores, grouped by method
+     */
+    private static <V extends CFAbstractValue<V>, S extends CFAbstractStore<V, S>>
+            List<List<CFAbstractStore<?, ?>>> collectStores(
+                    CheckerHarness harness, GenericAnnotatedTypeFactory<V, S, ?, ?> atypeFactory) {
+        List<List<CFAbstractStore<?, ?>>> result = new ArrayList<>();
+        for (CompilationUnitTree root : harness.roots) {
+            atypeFactory.setRoot(root);
+            for (ClassTree classTree : CheckerHarness.topLevelClasses(root)) {
+                atypeFactory.getAnnotatedType(classTree);
+            }
+            for (CheckerHarness.MethodInClass m : CheckerHarness.methods(root)) {
+                List<CFAbstractStore<?, ?>> methodStores = new ArrayList<>();
+                for (StatementTree stmt : m.method.getBody().getStatements()) {
+                    S store = atypeFactory.getStoreBefore(stmt);
+                    if (store != null) {
+                        methodStores.add(store);
+                    }
+                }
+                S exitStore = atypeFactory.getRegularExitStore(m.method);
+                if (exitStore != null) {
+                    methodStores.add(exitStore);
+                }
+                if (methodStores.size() >= 2) {
+                    result.add(methodStores);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the least upper bound of each pair of adjacent stores.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void leastUpperBound(Blackhole bh) {
+        for (List<CFAbstractStore<?, ?>> methodStores : stores) {
+            for (int i = 1; i < methodStores.size(); i++) {
+                bh.consume(lub(methodStores.get(i - 1), methodStores.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Copies each store.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void copy(Blackhole bh) {
+        for (List<CFAbstractStore<?, ?>> methodStores : stores) {
+            for (CFAbstractStore<?, ?> store : methodStores) {
+                bh.consume(store.copy());
+            }
+        }
+    }
+
+    /**
+     * Compares each pair of adjacent stores for equality, as the fixpoint iteration does to decide
+     * whether a block must be re-analyzed.
+     *
+     * @param bh the blackhole that consumes the results
+     */
+    @Benchmark
+    public void equalsAdjacent(Blackhole bh) {
+        for (List<CFAbstractStore<?, ?>> methodStores : stores) {
+            for (int i = 1; i < methodStores.size(); i++) {
+                bh.consume(methodStores.get(i - 1).equals(methodStores.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Returns the least upper bound of two stores of the same type.
+     *
+     * @param a a store
+     * @param b a store of the same type as {@code a}
+     * @return the least upper bound of {@code a} and {@code b}
+     */
+    @SuppressWarnings("unchecked") // all stores of a type factory have the same type
+    private static CFAbstractStore<?, ?> lub(CFAbstractStore<?, ?> a, CFAbstractStore<?, ?> b) {
+        @SuppressWarnings("rawtypes")
+        CFAbstractStore raw = a;
+        return (CFAbstractStore<?, ?>) raw.leastUpperBound(b);
+    }
+}
@@ -0,0 +1,66 @@
+package org.checkerframework.benchmarks;
+
+import org.checkerframework.framework.stub.AnnotationFileParser;
+import org.checkerframework.framework.stub.AnnotationFileParser.AnnotationFileAnnotations;
+import org.checkerframework.framework.stub.AnnotationFileUtil.AnnotationFileType;
+import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Measures {@code AnnotationFileParser.parseStubFile}: parsing a stub file with JavaParser and
+ * converting its declarations into annotated types for the Nullness Checker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class StubParsingBenchmark {
+
+    /** The stub file to parse, as a resource name. */
+    @Param({
+        "/corpus/collections.astub",
+        "/org/checkerframework/checker/nullness/collection-object-parameters-may-be-null.astub",
+        "/org/checkerframework/checker/nullness/junit-assertions.astub"
+    })
+    public String stubFile;
+
+    /** The compiled corpus, which supplies the type factory. */
+    private CheckerHarness harness;
+
+    /** The contents of {@link #stubFile}. */
+    private byte[] stubContents;
+
+    /** Reads the stub file and initializes the Nullness Checker. */
+    @Setup
+    public void setup() {
+        harness = new CheckerHarness("org.checkerframework.checker.nullness.NullnessChecker");
+        stubContents = CheckerHarness.readResource(stubFile).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the stub file into a fresh set of annotations.
+     *
+     * @return the annotations read from the stub file
+     */
+    @Benchmark
+    public AnnotationFileAnnotations parseStubFile() {
+        GenericAnnotatedTypeFactory<?, ?, ?, ?> atypeFactory = harness.atypeFactory;
+        AnnotationFileAnnotations result = new AnnotationFileAnnotations();
+        AnnotationFileParser.parseStubFile(
+                stubFile,
+                new ByteArrayInputStream(stubContents),
+                atypeFactory,
+                harness.getProcessingEnvironment(),
+                result,
+                AnnotationFileType.BUILTIN_STUB,
+                atypeFactory.stubTypes);
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package corpus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/** Typical collection-heavy client code: maps of lists, iteration, and null checks. */
+public class CollectionClient {
+
+    private final Map<String, List<Integer>> index = new HashMap<>();
+
+    private final Map<String, String> aliases = new LinkedHashMap<>();
+
+    private String lastKey;
+
+    public void add(String key, int value) {
+        List<Integer> values = index.get(key);
+        if (values == null) {
+            values = new ArrayList<>();
+            index.put(key, values);
+        }
+        values.add(value);
+        lastKey = key;
+    }
+
+    public int sum(String key) {
+        List<Integer> values = index.get(key);
+        if (values == null) {
+            return 0;
+        }
+        int total = 0;
+        for (Integer v : values) {
+            total += v;
+        }
+        return total;
+    }
+
+    public String resolve(String name) {
+        String result = name;
+        int hops = 0;
+        while (aliases.containsKey(result) && hops < 10) {
+            String next = aliases.get(result);
+            if (next == null) {
+                break;
+            }
+            result = next;
+            hops++;
+        }
+        return result;
+    }
+
+    public Set<String> keysWithAtLeast(int n) {
+        Set<String> result = new TreeSet<>();
+        for (Map.Entry<String, List<Integer>> e : index.entrySet()) {
+            if (e.getValue().size() >= n) {
+                result.add(e.getKey());
+            }
+        }
+        return result;
+    }
+
+    public List<String> sortedKeys() {
+        List<String> keys = new ArrayList<>(index.keySet());
+        java.util.Collections.sort(keys);
+        return java.util.Collections.unmodifiableList(keys);
+    }
+
+    public void removeEmpty() {
+        Iterator<Map.Entry<String, List<Integer>>> it = index.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, List<Integer>> e = it.next();
+            if (e.getValue().isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    public String describeLast() {
+        if (lastKey != null && index.containsKey(lastKey)) {
+            return lastKey + "=" + index.get(lastKey);
+        }
+        return "<none>";
+    }
+
+    public Map<String, Integer> totals() {
+        Map<String, Integer> result = new HashMap<>(index.size());
+        for (String key : index.keySet()) {
+            result.put(key, sum(key));
+        }
+        return result;
+    }
+
+    public int[] histogram(int buckets) {
+        int[] result = new int[buckets];
+        for (List<Integer> values : index.values()) {
+            for (int v : values) {
+                int b = Math.floorMod(v, buckets);
+                result[b]++;
+            }
+        }
+        return result;
+    }
+
+    public List<Integer> merged() {
+        List<Integer> all = new ArrayList<>();
+        for (List<Integer> values : index.values()) {
+            all.addAll(values);
+        }
+        java.util.Collections.sort(all, java.util.Collections.reverseOrder());
+        return all;
+    }
+}
@@ -0,0 +1,114 @@
+package corpus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/** Generic containers, bounded type variables, wildcards and lambdas. */
+public class Generics {
+
+    public static final class Pair<A, B> {
+        public final A first;
+        public final B second;
+
+        public Pair(A first, B second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public <C> Pair<A, C> withSecond(C c) {
+            return new Pair<>(first, c);
+        }
+
+        public Pair<B, A> swap() {
+            return new Pair<>(second, first);
+        }
+    }
+
+    public static final class Box<T extends Comparable<? super T>> {
+        private final List<T> items = new ArrayList<>();
+
+        public void add(T item) {
+            items.add(item);
+        }
+
+        public Optional<T> max() {
+            T best = null;
+            for (T item : items) {
+                if (best == null || item.compareTo(best) > 0) {
+                    best = item;
+                }
+            }
+            return Optional.ofNullable(best);
+        }
+
+        public List<T> sorted() {
+            List<T> copy = new ArrayList<>(items);
+            copy.sort(Comparator.naturalOrder());
+            return copy;
+        }
+    }
+
+    public static <K, V> Map<V, List<K>> invert(Map<K, V> map) {
+        Map<V, List<K>> result = new HashMap<>();
+        for (Map.Entry<K, V> e : map.entrySet()) {
+            result.computeIfAbsent(e.getValue(), k -> new ArrayList<>()).add(e.getKey());
+        }
+        return result;
+    }
+
+    public static <T, R> List<R> mapAll(List<? extends T> in, Function<? super T, ? extends R> f) {
+        List<R> out = new ArrayList<>(in.size());
+        for (T t : in) {
+            out.add(f.apply(t));
+        }
+        return out;
+    }
+
+    public static <T> List<T> filter(List<T> in, Predicate<? super T> p) {
+        return in.stream().filter(p).collect(Collectors.toList());
+    }
+
+    public static <T, A> A fold(List<T> in, A init, BiFunction<A, ? super T, A> f) {
+        A acc = init;
+        for (T t : in) {
+            acc = f.apply(acc, t);
+        }
+        return acc;
+    }
+
+    public static List<Pair<String, Integer>> zipWithLength(List<String> words) {
+        List<Pair<String, Integer>> result = new ArrayList<>();
+        for (String w : words) {
+            result.add(new Pair<>(w, w.length()));
+        }
+        return result;
+    }
+
+    public static int totalLength(List<String> words) {
+        return fold(mapAll(words, String::length), 0, (a, b) -> a + b);
+    }
+
+    public static Map<Integer, List<String>> byLength(List<String> words) {
+        Map<String, Integer> lengths = new HashMap<>();
+        for (Pair<String, Integer> p : zipWithLength(words)) {
+            lengths.put(p.first, p.second);
+        }
+        return invert(lengths);
+    }
+
+    public static String longest(List<String> words) {
+        Box<String> box = new Box<>();
+        for (String w : filter(words, s -> !s.isEmpty())) {
+            box.add(w);
+        }
+        return box.max().orElse("");
+    }
+}
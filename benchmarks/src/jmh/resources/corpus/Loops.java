@@ -0,0 +1,145 @@
+package corpus;
+
+/** Numeric loops, nested conditionals and arrays, which exercise the dataflow fixpoint. */
+public class Loops {
+
+    public static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    public static boolean isPrime(int n) {
+        if (n < 2) {
+            return false;
+        }
+        for (int i = 2; i * i <= n; i++) {
+            if (n % i == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int[] sieve(int limit) {
+        boolean[] composite = new boolean[limit + 1];
+        int count = 0;
+        for (int i = 2; i <= limit; i++) {
+            if (!composite[i]) {
+                count++;
+                for (int j = i * 2; j <= limit; j += i) {
+                    composite[j] = true;
+                }
+            }
+        }
+        int[] primes = new int[count];
+        int k = 0;
+        for (int i = 2; i <= limit; i++) {
+            if (!composite[i]) {
+                primes[k++] = i;
+            }
+        }
+        return primes;
+    }
+
+    public static long[][] multiply(long[][] a, long[][] b) {
+        int n = a.length;
+        int m = b[0].length;
+        int inner = b.length;
+        long[][] c = new long[n][m];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                long sum = 0;
+                for (int k = 0; k < inner; k++) {
+                    sum += a[i][k] * b[k][j];
+                }
+                c[i][j] = sum;
+            }
+        }
+        return c;
+    }
+
+    public static int binarySearch(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = sorted[mid];
+            if (v < key) {
+                lo = mid + 1;
+            } else if (v > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    public static void bubbleSort(int[] a) {
+        boolean swapped = true;
+        int end = a.length;
+        while (swapped) {
+            swapped = false;
+            for (int i = 1; i < end; i++) {
+                if (a[i - 1] > a[i]) {
+                    int t = a[i - 1];
+                    a[i - 1] = a[i];
+                    a[i] = t;
+                    swapped = true;
+                }
+            }
+            end--;
+        }
+    }
+
+    public static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        do {
+            if (i > 0 && i % 10 == 0) {
+                sb.append('\n');
+            }
+            sb.append(s);
+            i++;
+        } while (i < times);
+        return sb.toString();
+    }
+
+    public static int collatzSteps(long n) {
+        int steps = 0;
+        outer:
+        while (n != 1) {
+            for (int tries = 0; tries < 3; tries++) {
+                if (n <= 0) {
+                    break outer;
+                }
+                if (n % 2 == 0) {
+                    n /= 2;
+                    steps++;
+                    continue outer;
+                }
+            }
+            n = 3 * n + 1;
+            steps++;
+        }
+        return steps;
+    }
+
+    public static int sumWithExceptions(String[] numbers) {
+        int total = 0;
+        for (String s : numbers) {
+            try {
+                total += Integer.parseInt(s.trim());
+            } catch (NumberFormatException e) {
+                total -= 1;
+            } finally {
+                total = Math.max(total, -1000);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,207 @@
+package corpus;
+
+/** A generated-style tokenizer with a large switch and a state machine. */
+public class Switches {
+
+    public enum Kind {
+        IDENT,
+        NUMBER,
+        STRING,
+        LPAREN,
+        RPAREN,
+        LBRACE,
+        RBRACE,
+        COMMA,
+        SEMI,
+        OP,
+        EOF,
+        ERROR
+    }
+
+    private final String input;
+
+    private int pos;
+
+    private int line = 1;
+
+    public Switches(String input) {
+        this.input = input;
+    }
+
+    public Kind next() {
+        skipWhitespace();
+        if (pos >= input.length()) {
+            return Kind.EOF;
+        }
+        char c = input.charAt(pos);
+        switch (c) {
+            case '(':
+                pos++;
+                return Kind.LPAREN;
+            case ')':
+                pos++;
+                return Kind.RPAREN;
+            case '{':
+                pos++;
+                return Kind.LBRACE;
+            case '}':
+                pos++;
+                return Kind.RBRACE;
+            case ',':
+                pos++;
+                return Kind.COMMA;
+            case ';':
+                pos++;
+                return Kind.SEMI;
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+            case '%':
+            case '<':
+            case '>':
+            case '=':
+            case '!':
+            case '&':
+            case '|':
+                return operator(c);
+            case '"':
+                return string();
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return number();
+            default:
+                if (Character.isJavaIdentifierStart(c)) {
+                    return identifier();
+                }
+                pos++;
+                return Kind.ERROR;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if (c == '\n') {
+                line++;
+                pos++;
+            } else if (Character.isWhitespace(c)) {
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private Kind operator(char c) {
+        pos++;
+        if (pos < input.length()) {
+            char d = input.charAt(pos);
+            if ((c == '<' || c == '>' || c == '=' || c == '!') && d == '=') {
+                pos++;
+            } else if ((c == '&' || c == '|') && d == c) {
+                pos++;
+            }
+        }
+        return Kind.OP;
+    }
+
+    private Kind string() {
+        int state = 0;
+        pos++;
+        while (pos < input.length()) {
+            char c = input.charAt(pos++);
+            switch (state) {
+                case 0:
+                    if (c == '\\') {
+                        state = 1;
+                    } else if (c == '"') {
+                        return Kind.STRING;
+                    } else if (c == '\n') {
+                        return Kind.ERROR;
+                    }
+                    break;
+                case 1:
+                    state = c == 'u' ? 2 : 0;
+                    break;
+                default:
+                    if (Character.digit(c, 16) < 0) {
+                        return Kind.ERROR;
+                    }
+                    state = state == 5 ? 0 : state + 1;
+                    break;
+            }
+        }
+        return Kind.ERROR;
+    }
+
+    private Kind number() {
+        boolean seenDot = false;
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else if (!Character.isDigit(c)) {
+                break;
+            }
+            pos++;
+        }
+        return Kind.NUMBER;
+    }
+
+    private Kind identifier() {
+        while (pos < input.length() && Character.isJavaIdentifierPart(input.charAt(pos))) {
+            pos++;
+        }
+        return Kind.IDENT;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public static String describe(Kind kind) {
+        switch (kind) {
+            case IDENT:
+                return "identifier";
+            case NUMBER:
+                return "number";
+            case STRING:
+                return "string literal";
+            case LPAREN:
+            case RPAREN:
+                return "parenthesis";
+            case LBRACE:
+            case RBRACE:
+                return "brace";
+            case COMMA:
+            case SEMI:
+                return "separator";
+            case OP:
+                return "operator";
+            case EOF:
+                return "end of input";
+            default:
+                return "error";
+        }
+    }
+
+    public static int count(String input, Kind wanted) {
+        Switches lexer = new Switches(input);
+        int n = 0;
+        for (Kind k = lexer.next(); k != Kind.EOF; k = lexer.next()) {
+            if (k == wanted) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
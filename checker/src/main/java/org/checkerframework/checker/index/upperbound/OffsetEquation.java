@@ -11,10 +11,12 @@ import org.checkerframework.dataflow.expression.Unknown;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesError;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.TreeUtils;
+import org.plumelib.util.CollectionsPlume;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -24,7 +26,8 @@ import java.util.regex.Pattern;
  * subtracted terms, and a single integer constant. The Java expression strings have been
  * standardized and viewpoint-adapted.
  *
- * <p>An OffsetEquation is mutable.
+ * <p>An OffsetEquation is only modified while it is being created, so an equation returned by a
+ * method of this class may be shared.
  */
 public class OffsetEquation {
     /** The equation for 0 (zero). */
@@ -330,16 +333,71 @@ public class OffsetEquation {
         return equation;
     }
 
+    /** The maximum number of entries in {@link #javaExpressionCache}. */
+    private static final int JAVA_EXPRESSION_CACHE_SIZE = 1000;
+
+    /**
+     * The results of {@link #createOffsetFromJavaExpression} for recently parsed strings. The
+     * result depends only on the string, so the cache is shared by all checkers. Synchronize on it
+     * to access it or the statistics below.
+     */
+    private static final Map<String, OffsetEquation> javaExpressionCache =
+            CollectionsPlume.createLruCache(JAVA_EXPRESSION_CACHE_SIZE);
+
+    /** The number of calls to {@link #createOffsetFromJavaExpression} answered from the cache. */
+    private static long javaExpressionCacheHits = 0;
+
+    /** The number of calls to {@link #createOffsetFromJavaExpression} that parsed the string. */
+    private static long javaExpressionCacheMisses = 0;
+
     /**
      * Creates an offset equation from the expressionEquation. The expressionEquation may be several
      * Java expressions added or subtracted from each other. The expressionEquation may also start
      * with + or -. If the expressionEquation is the empty string, then the offset equation returned
      * is zero.
      *
+     * <p>The result is cached, so it may be shared.
+     *
      * @param expressionEquation a Java expression made up of sums and differences
      * @return an offset equation created from expressionEquation
      */
     public static OffsetEquation createOffsetFromJavaExpression(String expressionEquation) {
+        synchronized (javaExpressionCache) {
+            OffsetEquation result = javaExpressionCache.get(expressionEquation);
+            if (result != null) {
+                javaExpressionCacheHits++;
+                return result;
+            }
+            javaExpressionCacheMisses++;
+            result = parseJavaExpression(expressionEquation);
+            javaExpressionCache.put(expressionEquation, result);
+            return result;
+        }
+    }
+
+    /**
+     * Returns a description of how often {@link #createOffsetFromJavaExpression} found its result
+     * in the cache, suitable for the {@code -AresourceStats} output. The counts include all
+     * checkers that have run in this JVM.
+     *
+     * @return statistics about the cache of parsed offset equations
+     */
+    public static String getJavaExpressionCacheStatistics() {
+        synchronized (javaExpressionCache) {
+            return String.format(
+                    "OffsetEquation cache: %d hits, %d misses",
+                    javaExpressionCacheHits, javaExpressionCacheMisses);
+        }
+    }
+
+    /**
+     * Parses an offset equation; the implementation of {@link #createOffsetFromJavaExpression},
+     * without caching.
+     *
+     * @param expressionEquation a Java expression made up of sums and differences
+     * @return a new offset equation created from expressionEquation
+     */
+    private static OffsetEquation parseJavaExpression(String expressionEquation) {
         expressionEquation = expressionEquation.trim();
         OffsetEquation equation = new OffsetEquation();
         if (expressionEquation.isEmpty()) {
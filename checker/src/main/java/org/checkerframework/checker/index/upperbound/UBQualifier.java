@@ -39,14 +39,15 @@ import javax.lang.model.element.AnnotationMirror;
 public abstract class UBQualifier {
 
     /**
-     * Create a UBQualifier from the given annotation.
+     * Create a UBQualifier from the given annotation. The result is cached by {@code ubChecker}, so
+     * it may be shared; UBQualifiers are immutable.
      *
      * @param am the annotation to turn into a UBQualifier
      * @param ubChecker used to obtain the fields of {@code am}
      * @return a UBQualifier that represents the same information as the given annotation
      */
     public static UBQualifier createUBQualifier(AnnotationMirror am, UpperBoundChecker ubChecker) {
-        return createUBQualifier(am, null, ubChecker);
+        return ubChecker.getUBQualifier(am);
     }
 
     /**
@@ -983,6 +984,8 @@ public abstract class UBQualifier {
                 if (glb == null) {
                     glb = otherglb;
                 } else if (otherglb != null) {
+                    // Do not side-effect this.map; UBQualifiers are shared.
+                    glb = new HashSet<>(glb);
                     glb.addAll(otherglb);
                 }
                 glbMap.put(sequence, removeSmallerInts(glb));
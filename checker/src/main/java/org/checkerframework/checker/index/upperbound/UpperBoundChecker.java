@@ -17,10 +17,13 @@ import org.checkerframework.common.value.ValueChecker;
 import org.checkerframework.framework.qual.RelevantJavaTypes;
 import org.checkerframework.framework.source.SuppressWarningsPrefix;
 import org.checkerframework.javacutil.TreeUtils;
+import org.plumelib.util.CollectionsPlume;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
 
 /**
@@ -69,6 +72,22 @@ public class UpperBoundChecker extends BaseTypeChecker {
      */
     private final HashSet<String> collectionBaseTypeNames;
 
+    /** The maximum number of entries in {@link #ubQualifierCache}. */
+    private static final int UB_QUALIFIER_CACHE_SIZE = 1000;
+
+    /** The UBQualifier of each recently used annotation; see {@link #getUBQualifier}. */
+    private final Map<AnnotationMirror, UBQualifier> ubQualifierCache =
+            CollectionsPlume.createLruCache(UB_QUALIFIER_CACHE_SIZE);
+
+    /** True if {@link #ubQualifierCache} is used; false if {@code -AatfDoNotCache} is supplied. */
+    private boolean shouldCacheUBQualifiers = true;
+
+    /** The number of calls to {@link #getUBQualifier} answered from the cache. */
+    private long ubQualifierCacheHits = 0;
+
+    /** The number of calls to {@link #getUBQualifier} that decoded the annotation. */
+    private long ubQualifierCacheMisses = 0;
+
     /** Create a new UpperBoundChecker. */
     public UpperBoundChecker() {
         // These classes are bases for both mutable and immutable sequence collections, which
@@ -96,6 +115,44 @@ public class UpperBoundChecker extends BaseTypeChecker {
                 TreeUtils.getMethod(LTOMLengthOf.class, "value", 0, processingEnv);
         upperBoundLiteralValueElement =
                 TreeUtils.getMethod(UpperBoundLiteral.class, "value", 0, processingEnv);
+        shouldCacheUBQualifiers = !hasOption("atfDoNotCache");
+    }
+
+    /**
+     * Returns the UBQualifier for the given annotation. Clients should call {@link
+     * UBQualifier#createUBQualifier(AnnotationMirror, UpperBoundChecker)} instead.
+     *
+     * <p>Decoding an annotation parses the Java expressions in its elements, and the qualifier
+     * hierarchy decodes the same annotations over and over, so the results are cached. Annotation
+     * mirrors use identity equality, and UBQualifiers are immutable.
+     *
+     * @param am an Upper Bound annotation
+     * @return the UBQualifier that represents {@code am}
+     */
+    /*package-private*/ UBQualifier getUBQualifier(AnnotationMirror am) {
+        if (!shouldCacheUBQualifiers) {
+            return UBQualifier.createUBQualifier(am, null, this);
+        }
+        UBQualifier result = ubQualifierCache.get(am);
+        if (result != null) {
+            ubQualifierCacheHits++;
+            return result;
+        }
+        ubQualifierCacheMisses++;
+        result = UBQualifier.createUBQualifier(am, null, this);
+        ubQualifierCache.put(am, result);
+        return result;
+    }
+
+    @Override
+    protected void printStats() {
+        super.printStats();
+        String name = getClass().getSimpleName();
+        System.out.println(
+                String.format(
+                        "%s UBQualifier cache: %d hits, %d misses",
+                        name, ubQualifierCacheHits, ubQualifierCacheMisses));
+        System.out.println(name + " " + OffsetEquation.getJavaExpressionCacheStatistics());
     }
 
     @Override
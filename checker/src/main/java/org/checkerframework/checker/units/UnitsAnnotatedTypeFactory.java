@@ -101,11 +101,19 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
      */
     private @MonotonicNonNull Map<@CanonicalName String, UnitsRelations> unitsRel;
 
-    /** Map from canonical name of external qualifiers, to their Class. */
-    private static final Map<@CanonicalName String, Class<? extends Annotation>> externalQualsMap =
+    /**
+     * Map from canonical name of external qualifiers, to their Class. Not static, because the
+     * external units depend on the command line of the compilation.
+     */
+    private final Map<@CanonicalName String, Class<? extends Annotation>> externalQualsMap =
             new HashMap<>();
 
-    private static final Map<String, AnnotationMirror> aliasMap = new HashMap<>();
+    /**
+     * Map from the name of an aliased unit annotation to the base unit annotation that it stands
+     * for. Not static, because the annotation mirrors belong to the javac context of one
+     * compilation.
+     */
+    private final Map<String, AnnotationMirror> aliasMap = new HashMap<>();
 
     public UnitsAnnotatedTypeFactory(BaseTypeChecker checker) {
         // use true to enable flow inference, false to disable it
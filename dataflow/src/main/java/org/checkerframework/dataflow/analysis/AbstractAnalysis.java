@@ -21,13 +21,15 @@ import org.checkerframework.dataflow.qual.Pure;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.ElementUtils;
 
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.StringJoiner;
 
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
@@ -67,6 +69,9 @@ public abstract class AbstractAnalysis<
     /** The worklist used for the fix-point iteration. */
     protected final Worklist worklist;
 
+    /** The number of blocks taken from {@link #worklist} since the analysis was last started. */
+    protected int worklistPollCount = 0;
+
     /** Abstract values of nodes. */
     protected final IdentityHashMap<Node, V> nodeValues = new IdentityHashMap<>();
 
@@ -159,6 +164,18 @@ public abstract class AbstractAnalysis<
         return isRunning;
     }
 
+    /**
+     * Returns the number of blocks that the last run of the analysis took from its worklist. This
+     * is the number of times the analysis applied the transfer function to a block. Each block is
+     * analyzed at least once, and the blocks of loops are analyzed again until a fixed point is
+     * reached.
+     *
+     * @return the number of blocks taken from the worklist since the analysis was last started
+     */
+    public int getWorklistPollCount() {
+        return worklistPollCount;
+    }
+
     @Override
     public Direction getDirection() {
         return this.direction;
@@ -408,6 +425,7 @@ public abstract class AbstractAnalysis<
         inputs.clear();
         nodeValues.clear();
         finalLocalValues.clear();
+        worklistPollCount = 0;
         this.cfg = cfg;
     }
 
@@ -450,7 +468,6 @@ public abstract class AbstractAnalysis<
      * @param b the block to add to {@link #worklist}
      */
     protected void addToWorklist(Block b) {
-        // TODO: use a more efficient way to check if b is already present
         if (!worklist.contains(b)) {
             worklist.add(b);
         }
@@ -459,38 +476,25 @@ public abstract class AbstractAnalysis<
     /**
      * A worklist is a priority queue of blocks in which the order is given by depth-first ordering
      * to place non-loop predecessors ahead of successors.
+     *
+     * <p>Each block is numbered by its position in the depth-first order, and the pending blocks
+     * are stored as a bit set indexed by that number. Therefore {@link #contains}, {@link #add},
+     * and {@link #poll} take constant time (amortized over the words of the bit set), rather than
+     * time linear or logarithmic in the size of the worklist.
      */
     protected static class Worklist {
 
         /** Map all blocks in the CFG to their depth-first order. */
         protected final IdentityHashMap<Block, Integer> depthFirstOrder = new IdentityHashMap<>();
 
-        /**
-         * Comparators to allow priority queue to order blocks by their depth-first order, using by
-         * forward analysis.
-         */
-        public class ForwardDFOComparator implements Comparator<Block> {
-            @SuppressWarnings("nullness:unboxing.of.nullable")
-            @Override
-            public int compare(Block b1, Block b2) {
-                return depthFirstOrder.get(b1) - depthFirstOrder.get(b2);
-            }
-        }
+        /** The blocks of the CFG, indexed by their depth-first order. */
+        private Block[] blocksInOrder = new Block[0];
 
-        /**
-         * Comparators to allow priority queue to order blocks by their depth-first order, using by
-         * backward analysis.
-         */
-        public class BackwardDFOComparator implements Comparator<Block> {
-            @SuppressWarnings("nullness:unboxing.of.nullable")
-            @Override
-            public int compare(Block b1, Block b2) {
-                return depthFirstOrder.get(b2) - depthFirstOrder.get(b1);
-            }
-        }
+        /** The depth-first order numbers of the blocks in the worklist. */
+        private final BitSet pending = new BitSet();
 
-        /** The backing priority queue. */
-        protected final PriorityQueue<Block> queue;
+        /** The direction of the analysis: forward polls the lowest number, backward the highest. */
+        private final Direction direction;
 
         /**
          * Create a Worklist.
@@ -498,13 +502,10 @@ public abstract class AbstractAnalysis<
          * @param direction the direction (forward or backward)
          */
         public Worklist(Direction direction) {
-            if (direction == Direction.FORWARD) {
-                queue = new PriorityQueue<>(new ForwardDFOComparator());
-            } else if (direction == Direction.BACKWARD) {
-                queue = new PriorityQueue<>(new BackwardDFOComparator());
-            } else {
+            if (direction != Direction.FORWARD && direction != Direction.BACKWARD) {
                 throw new BugInCF("Unexpected Direction meet: " + direction.name());
             }
+            this.direction = direction;
         }
 
         /**
@@ -514,61 +515,95 @@ public abstract class AbstractAnalysis<
          */
         public void process(ControlFlowGraph cfg) {
             depthFirstOrder.clear();
-            int count = 1;
-            for (Block b : cfg.getDepthFirstOrderedBlocks()) {
+            List<Block> blocks = cfg.getDepthFirstOrderedBlocks();
+            blocksInOrder = new Block[blocks.size()];
+            int count = 0;
+            for (Block b : blocks) {
+                blocksInOrder[count] = b;
                 depthFirstOrder.put(b, count++);
             }
 
-            queue.clear();
+            pending.clear();
+        }
+
+        /**
+         * Returns the depth-first order number of the given block. A block that is not in the
+         * depth-first order of the CFG is numbered after all other blocks.
+         *
+         * @param block a block
+         * @return the depth-first order number of {@code block}
+         */
+        private int orderOf(Block block) {
+            Integer order = depthFirstOrder.get(block);
+            if (order != null) {
+                return order;
+            }
+            int newOrder = blocksInOrder.length;
+            blocksInOrder = Arrays.copyOf(blocksInOrder, newOrder + 1);
+            blocksInOrder[newOrder] = block;
+            depthFirstOrder.put(block, newOrder);
+            return newOrder;
         }
 
         /**
-         * See {@link PriorityQueue#isEmpty}.
+         * Returns true if the worklist is empty.
          *
-         * @see PriorityQueue#isEmpty
-         * @return true if {@link #queue} is empty else false
+         * @return true if the worklist is empty else false
          */
         @Pure
         @EnsuresNonNullIf(result = false, expression = "poll()")
         @SuppressWarnings("nullness:contracts.conditional.postcondition.not.satisfied") // forwarded
         public boolean isEmpty() {
-            return queue.isEmpty();
+            return pending.isEmpty();
         }
 
         /**
-         * Check if {@link #queue} contains the block which is passed as the argument.
+         * Check if the worklist contains the block which is passed as the argument.
          *
          * @param block the given block to check
-         * @return true if {@link #queue} contains the given block
+         * @return true if the worklist contains the given block
          */
         public boolean contains(Block block) {
-            return queue.contains(block);
+            Integer order = depthFirstOrder.get(block);
+            return order != null && pending.get(order);
         }
 
         /**
-         * Add the given block to {@link #queue}. Adds unconditionally: does not check containment
-         * first.
+         * Add the given block to the worklist. If the block is already present, the worklist is
+         * unchanged.
          *
-         * @param block the block to add to {@link #queue}
+         * @param block the block to add to the worklist
          */
         public void add(Block block) {
-            queue.add(block);
+            pending.set(orderOf(block));
         }
 
         /**
-         * See {@link PriorityQueue#poll}.
+         * Removes and returns the block of the worklist that comes first in depth-first order (for
+         * a forward analysis) or last in depth-first order (for a backward analysis).
          *
-         * @see PriorityQueue#poll
-         * @return the head of {@link #queue}
+         * @return the head of the worklist, or null if the worklist is empty
          */
         @Pure
         public @Nullable Block poll() {
-            return queue.poll();
+            int order =
+                    direction == Direction.FORWARD
+                            ? pending.nextSetBit(0)
+                            : pending.previousSetBit(pending.length() - 1);
+            if (order < 0) {
+                return null;
+            }
+            pending.clear(order);
+            return blocksInOrder[order];
         }
 
         @Override
         public String toString() {
-            return "Worklist(" + queue + ")";
+            StringJoiner result = new StringJoiner(", ", "Worklist([", "])");
+            for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+                result.add(String.valueOf(blocksInOrder[i]));
+            }
+            return result.toString();
         }
     }
 }
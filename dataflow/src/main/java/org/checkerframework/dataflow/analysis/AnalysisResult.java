@@ -10,6 +10,7 @@ import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.TreeUtils;
+import org.plumelib.util.IdentityArraySet;
 import org.plumelib.util.UniqueId;
 import org.plumelib.util.UnmodifiableIdentityHashMap;
 
@@ -172,7 +173,10 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> impl
     }
 
     /**
-     * Merge all entries from otherTreeLookup into treeLookup. Merge sets if already present.
+     * Merge all entries from otherTreeLookup into treeLookup. Merge sets if already present. The
+     * sets in both maps are not modified, because they may belong to a {@link
+     * org.checkerframework.dataflow.cfg.ControlFlowGraph}; see {@link
+     * org.checkerframework.dataflow.cfg.ControlFlowGraph#compact}.
      *
      * @param treeLookup a map from abstract syntax trees to sets of nodes
      * @param otherTreeLookup another treeLookup that will be merged into {@code treeLookup}
@@ -185,7 +189,10 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> impl
             if (hit == null) {
                 treeLookup.put(entry.getKey(), entry.getValue());
             } else {
-                hit.addAll(entry.getValue());
+                Set<Node> merged = new IdentityArraySet<>(hit.size() + entry.getValue().size());
+                merged.addAll(hit);
+                merged.addAll(entry.getValue());
+                treeLookup.put(entry.getKey(), merged);
             }
         }
     }
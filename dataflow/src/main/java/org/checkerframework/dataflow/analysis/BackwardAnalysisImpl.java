@@ -84,6 +84,7 @@ public class BackwardAnalysisImpl<
             init(cfg);
             while (!worklist.isEmpty()) {
                 Block b = worklist.poll();
+                worklistPollCount++;
                 performAnalysisBlock(b);
             }
         } finally {
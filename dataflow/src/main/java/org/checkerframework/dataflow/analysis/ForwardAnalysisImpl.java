@@ -23,6 +23,7 @@ import org.checkerframework.javacutil.BugInCF;
 import org.plumelib.util.CollectionsPlume;
 import org.plumelib.util.IPair;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -66,6 +67,27 @@ public class ForwardAnalysisImpl<
     /** The stores after every return statement. */
     protected final IdentityHashMap<ReturnNode, TransferResult<V, S>> storesAtReturnStatements;
 
+    /**
+     * The index of each node in its regular block, for the blocks that {@link #runAnalysisFor} has
+     * looked up since the last run of the analysis.
+     */
+    private final IdentityHashMap<Node, Integer> nodeIndices = new IdentityHashMap<>();
+
+    /**
+     * The number of blocks that the analysis of one control flow graph may take from the worklist
+     * before it exceeds its budget, or -1 if there is no such limit. See {@link #setBudget}.
+     */
+    protected int maxWorklistPolls = -1;
+
+    /**
+     * The time that the analysis of one control flow graph may take before it exceeds its budget,
+     * in nanoseconds, or -1 if there is no such limit. See {@link #setBudget}.
+     */
+    protected long maxNanos = -1;
+
+    /** True if the current or last run of the analysis exceeded its budget. */
+    protected boolean budgetExceeded = false;
+
     // `@code`, not `@link`, because dataflow module doesn't depend on framework module.
     /**
      * Construct an object that can perform a org.checkerframework.dataflow forward analysis over a
@@ -94,6 +116,64 @@ public class ForwardAnalysisImpl<
         this.transferFunction = transferFunction;
     }
 
+    /**
+     * Limits the work that the analysis of one control flow graph may do before it reaches a fixed
+     * point. Once the analysis exceeds this budget, it gives up on precision: if {@link
+     * #createTopStore} returns a store, every block that the analysis has reached gets that store
+     * as its input, and the analysis finishes by propagating it, which takes a number of steps
+     * proportional to the number of blocks. Otherwise, the analysis widens every store that it
+     * merges, instead of only every {@code maxCountBeforeWidening}-th one; that bounds the work
+     * only if the widening reaches the top of the lattice quickly. Either way, the analysis still
+     * runs to a fixed point, so its result remains sound. Use {@link #isBudgetExceeded} to
+     * determine whether the last run of the analysis exceeded its budget.
+     *
+     * @param maxWorklistPolls the number of blocks the analysis may take from its worklist, or -1
+     *     for no limit
+     * @param maxMillis the time the analysis may take, in milliseconds, or -1 for no limit
+     */
+    public void setBudget(int maxWorklistPolls, long maxMillis) {
+        this.maxWorklistPolls = maxWorklistPolls;
+        this.maxNanos = maxMillis == -1 ? -1 : maxMillis * 1_000_000;
+    }
+
+    /**
+     * Returns true if the current or last run of the analysis exceeded the budget set by {@link
+     * #setBudget}, and therefore gave up on precision.
+     *
+     * @return true if the analysis exceeded its budget
+     */
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    /**
+     * Returns a store that contains no information, that is, the top of the store lattice. The
+     * analysis uses it for every block once it has exceeded the budget set by {@link #setBudget}.
+     * The default implementation returns null, which means that the analysis cannot create such a
+     * store and widens every merge instead.
+     *
+     * @return a store that contains no information, or null if the analysis cannot create one
+     */
+    protected @Nullable S createTopStore() {
+        return null;
+    }
+
+    /**
+     * Gives every block that the analysis has reached the given store as its input, and adds those
+     * blocks to the worklist. Called when the analysis exceeds its budget.
+     *
+     * @param topStore a store that contains no information
+     */
+    private void resetInputsTo(S topStore) {
+        for (Block b : new ArrayList<>(inputs.keySet())) {
+            S store = topStore.copy();
+            thenStores.put(b, store);
+            elseStores.put(b, store);
+            inputs.put(b, new TransferInput<>(null, this, store));
+            addToWorklist(b);
+        }
+    }
+
     @Override
     public void performAnalysis(ControlFlowGraph cfg) {
         if (isRunning) {
@@ -105,8 +185,22 @@ public class ForwardAnalysisImpl<
 
         try {
             init(cfg);
+            boolean hasTimeBudget = maxNanos != -1;
+            long startNanos = hasTimeBudget ? System.nanoTime() : 0;
             while (!worklist.isEmpty()) {
                 Block b = worklist.poll();
+                worklistPollCount++;
+                if (!budgetExceeded
+                        && ((maxWorklistPolls != -1 && worklistPollCount > maxWorklistPolls)
+                                || (hasTimeBudget && System.nanoTime() - startNanos > maxNanos))) {
+                    budgetExceeded = true;
+                    S topStore = createTopStore();
+                    if (topStore != null) {
+                        // `b` is back on the worklist.
+                        resetInputsTo(topStore);
+                        continue;
+                    }
+                }
                 performAnalysisBlock(b);
             }
         } finally {
@@ -274,11 +368,37 @@ public class ForwardAnalysisImpl<
                 case REGULAR_BLOCK:
                     {
                         RegularBlock rb = (RegularBlock) block;
-                        // Apply transfer function to contents until we found the node we are
-                        // looking for.
+                        List<Node> nodes = rb.getNodes();
+                        int nodeIndex = indexOfNode(nodes, node);
                         TransferInput<V, S> store = blockTransferInput;
                         TransferResult<V, S> transferResult;
-                        for (Node n : rb.getNodes()) {
+                        int startIndex = 0;
+                        if (cache != null) {
+                            if (preOrPost == Analysis.BeforeOrAfter.AFTER) {
+                                transferResult = cache.get(node);
+                                if (transferResult != null) {
+                                    return transferResult.getRegularStore();
+                                }
+                            }
+                            // The loop below caches the result of every node that it visits, so
+                            // the cache holds the results of a prefix of the nodes of the block.
+                            // Resume from the end of that prefix, or from the node before the
+                            // node we are looking for, so that looking up the stores of all the
+                            // nodes of a block applies the transfer function to each node once,
+                            // and each lookup takes constant time once its node is cached.
+                            int resumeIndex = Math.min(cache.size(), nodeIndex);
+                            if (resumeIndex > 0) {
+                                Node cachedNode = nodes.get(resumeIndex - 1);
+                                TransferResult<V, S> cachedResult = cache.get(cachedNode);
+                                if (cachedResult != null) {
+                                    store = new TransferInput<>(cachedNode, this, cachedResult);
+                                    startIndex = resumeIndex;
+                                }
+                            }
+                        }
+                        // Apply transfer function to contents until we found the node we are
+                        // looking for.
+                        for (Node n : nodes.subList(startIndex, nodeIndex + 1)) {
                             setCurrentNode(n);
                             if (n == node && preOrPost == Analysis.BeforeOrAfter.BEFORE) {
                                 return store.getRegularStore();
@@ -340,6 +460,30 @@ public class ForwardAnalysisImpl<
         }
     }
 
+    /**
+     * Returns the index of {@code node} in {@code nodes}, the nodes of its block. Records the
+     * indices of all the nodes of the block the first time one of them is looked up, so that
+     * later lookups take constant time.
+     *
+     * @param nodes the nodes of the block of {@code node}
+     * @param node the node to find
+     * @return the index of {@code node} in {@code nodes}
+     * @throws BugInCF if {@code nodes} does not contain {@code node}
+     */
+    private int indexOfNode(List<Node> nodes, Node node) {
+        Integer index = nodeIndices.get(node);
+        if (index == null) {
+            for (int i = 0; i < nodes.size(); i++) {
+                nodeIndices.put(nodes.get(i), i);
+            }
+            index = nodeIndices.get(node);
+            if (index == null) {
+                throw new BugInCF("node %s is not in node.getBlock()=%s", node, node.getBlock());
+            }
+        }
+        return index;
+    }
+
     @Override
     protected void initFields(ControlFlowGraph cfg) {
         thenStores.clear();
@@ -348,6 +492,8 @@ public class ForwardAnalysisImpl<
             blockCount.clear();
         }
         storesAtReturnStatements.clear();
+        nodeIndices.clear();
+        budgetExceeded = false;
         super.initFields(cfg);
     }
 
@@ -482,7 +628,11 @@ public class ForwardAnalysisImpl<
         S thenStore = getStoreBefore(b, Store.Kind.THEN);
         S elseStore = getStoreBefore(b, Store.Kind.ELSE);
         boolean shouldWiden = false;
-        if (blockCount != null) {
+        if (budgetExceeded) {
+            // Once the analysis has exceeded its budget, it widens every merge; see setBudget. If
+            // createTopStore returned a store, every merge already yields that store.
+            shouldWiden = true;
+        } else if (blockCount != null) {
             Integer count = blockCount.getOrDefault(b, 0);
             shouldWiden = count >= maxCountBeforeWidening;
             if (shouldWiden) {
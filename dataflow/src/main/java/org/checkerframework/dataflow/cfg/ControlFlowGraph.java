@@ -14,6 +14,7 @@ import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
 import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
 import org.checkerframework.dataflow.cfg.block.RegularBlock;
+import org.checkerframework.dataflow.cfg.block.RegularBlockImpl;
 import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
 import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlockImpl;
 import org.checkerframework.dataflow.cfg.block.SpecialBlock;
@@ -200,13 +201,46 @@ public class ControlFlowGraph implements UniqueId {
      *     trees that don't produce a value
      */
     public @Nullable Set<Node> getNodesCorrespondingToTree(Tree t) {
-        if (convertedTreeLookup.containsKey(t)) {
-            return convertedTreeLookup.get(t);
+        Set<Node> converted = convertedTreeLookup.get(t);
+        if (converted != null) {
+            return converted;
         } else {
             return treeLookup.get(t);
         }
     }
 
+    /**
+     * Reduces the memory that this control flow graph retains, once it is complete. Trims the
+     * contents of its regular blocks, and replaces each set of a single node in its tree-to-node
+     * maps by an immutable singleton set. Most trees correspond to a single node, so this saves an
+     * array and a set object for most entries.
+     *
+     * <p>After this method is called, the sets in the tree-to-node maps must not be modified.
+     */
+    public void compact() {
+        for (Block b : getAllBlocks()) {
+            if (b instanceof RegularBlockImpl) {
+                ((RegularBlockImpl) b).trimToSize();
+            }
+        }
+        compactTreeLookup(treeLookup);
+        compactTreeLookup(convertedTreeLookup);
+    }
+
+    /**
+     * Replaces each set of a single node in a tree-to-node map by an immutable singleton set.
+     *
+     * @param lookup a map from trees to the nodes that correspond to them
+     */
+    private static void compactTreeLookup(IdentityHashMap<Tree, Set<Node>> lookup) {
+        for (Map.Entry<Tree, Set<Node>> entry : lookup.entrySet()) {
+            Set<Node> nodes = entry.getValue();
+            if (nodes.size() == 1) {
+                entry.setValue(Collections.singleton(nodes.iterator().next()));
+            }
+        }
+    }
+
     /**
      * Returns the entry block of the control flow graph.
      *
@@ -11,7 +11,7 @@ import java.util.List;
 public class RegularBlockImpl extends SingleSuccessorBlockImpl implements RegularBlock {
 
     /** Internal representation of the contents. */
-    protected final List<Node> contents;
+    protected final ArrayList<Node> contents;
 
     /**
      * Initialize an empty basic block to be filled with contents and linked to other basic blocks
@@ -28,6 +28,14 @@ public class RegularBlockImpl extends SingleSuccessorBlockImpl implements Regula
         t.setBlock(this);
     }
 
+    /**
+     * Releases the unused capacity of the list of contents. Call this method once the block is
+     * complete.
+     */
+    public void trimToSize() {
+        contents.trimToSize();
+    }
+
     /** Add multiple nodes to the contents of this basic block. */
     public void addNodes(List<? extends Node> ts) {
         for (Node t : ts) {
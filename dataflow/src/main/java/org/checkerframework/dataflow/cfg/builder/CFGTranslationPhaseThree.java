@@ -126,6 +126,7 @@ public class CFGTranslationPhaseThree {
         */
 
         mergeConsecutiveBlocks(cfg);
+        cfg.compact();
         return cfg;
     }
 
@@ -18,9 +18,12 @@ import org.checkerframework.dataflow.cfg.visualize.CFGVisualizer;
 import org.checkerframework.framework.qual.SubtypeOf;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.DefaultTypeHierarchy;
 import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.TypeHierarchy;
+import org.checkerframework.framework.util.HotMethodStatistics;
+import org.checkerframework.framework.util.PhaseStatistics;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
 import org.checkerframework.javacutil.AnnotationProvider;
 import org.checkerframework.javacutil.BugInCF;
@@ -159,6 +162,27 @@ public abstract class BaseTypeChecker extends SourceChecker {
     // Not final because it is set in `init()`.
     private boolean warnUnneededSuppressions;
 
+    /**
+     * The measurements of the phases of type-checking, or null if -AphaseStats was not supplied on
+     * the command line. Do not read this field directly; instead, use {@link #getPhaseStatistics}.
+     */
+    private @MonotonicNonNull PhaseStatistics phaseStatistics = null;
+
+    /** True if {@link #phaseStatistics} has been initialized. */
+    private boolean phaseStatisticsInitialized = false;
+
+    /**
+     * The cost of analyzing each method and class, or null if -AhotMethods was not supplied on the
+     * command line. Do not read this field directly; instead, use {@link #getHotMethodStatistics}.
+     */
+    private @MonotonicNonNull HotMethodStatistics hotMethodStatistics = null;
+
+    /** True if {@link #hotMethodStatistics} has been initialized. */
+    private boolean hotMethodStatisticsInitialized = false;
+
+    /** The number of methods and of classes that -AhotMethods reports by default. */
+    private static final int DEFAULT_HOT_METHODS_LIMIT = 20;
+
     @Override
     protected void setRoot(CompilationUnitTree newRoot) {
         super.setRoot(newRoot);
@@ -540,6 +564,11 @@ public abstract class BaseTypeChecker extends SourceChecker {
         Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
         Log log = Log.instance(context);
 
+        // The subcheckers run one after another, in the order of getSubcheckers(), which lists
+        // every subchecker after the subcheckers it depends on. They cannot run concurrently, even
+        // if neither depends on the other: all checkers share the javac Context, whose symbol
+        // table, Types, Log, and tree positions are not thread-safe, and the type factories of
+        // the subcheckers complete symbols and attribute trees lazily as they check a class.
         int nerrorsOfAllPreviousCheckers = this.errsOnLastExit;
         for (BaseTypeChecker subchecker : getSubcheckers()) {
             subchecker.errsOnLastExit = nerrorsOfAllPreviousCheckers;
@@ -555,6 +584,13 @@ public abstract class BaseTypeChecker extends SourceChecker {
         this.errsOnLastExit = nerrorsOfAllPreviousCheckers;
         super.typeProcess(element, tree);
 
+        PhaseStatistics phaseStatistics = getPhaseStatistics();
+        if (phaseStatistics != null) {
+            System.out.println(
+                    phaseStatistics.finishClass(
+                            getClass().getSimpleName(), element.getQualifiedName().toString()));
+        }
+
         if (!getSubcheckers().isEmpty()) {
             printStoredMessages(tree.getCompilationUnit());
             // Update errsOnLastExit to reflect the errors issued.
@@ -562,6 +598,52 @@ public abstract class BaseTypeChecker extends SourceChecker {
         }
     }
 
+    /**
+     * Returns the measurements of the phases of type-checking done by this checker, or null if the
+     * -AphaseStats command-line option was not supplied. Code that measures a phase passes the
+     * result to {@link PhaseStatistics#time}.
+     *
+     * @return the measurements of the phases of type-checking, or null if they are not measured
+     */
+    public @Nullable PhaseStatistics getPhaseStatistics() {
+        if (!phaseStatisticsInitialized) {
+            if (hasOption("phaseStats")) {
+                phaseStatistics = new PhaseStatistics();
+            }
+            phaseStatisticsInitialized = true;
+        }
+        return phaseStatistics;
+    }
+
+    /**
+     * Returns the cost of analyzing each method and class, or null if the -AhotMethods command-line
+     * option was not supplied. {@link GenericAnnotatedTypeFactory} records the cost of each
+     * control flow graph that it analyzes.
+     *
+     * @return the cost of analyzing each method and class, or null if it is not recorded
+     */
+    public @Nullable HotMethodStatistics getHotMethodStatistics() {
+        if (!hotMethodStatisticsInitialized) {
+            if (hasOption("hotMethods")) {
+                int limit = DEFAULT_HOT_METHODS_LIMIT;
+                String limitOption = getOption("hotMethods");
+                if (limitOption != null && !limitOption.isEmpty()) {
+                    try {
+                        limit = Integer.parseInt(limitOption);
+                    } catch (NumberFormatException e) {
+                        throw new UserError("hotMethods was not an integer: " + limitOption);
+                    }
+                    if (limit < 1) {
+                        throw new UserError("hotMethods must be positive: " + limitOption);
+                    }
+                }
+                hotMethodStatistics = new HotMethodStatistics(limit);
+            }
+            hotMethodStatisticsInitialized = true;
+        }
+        return hotMethodStatistics;
+    }
+
     /**
      * Like {@link SourceChecker#getSuppressWarningsPrefixes()}, but includes all prefixes supported
      * by this checker or any of its subcheckers. Does not guarantee that the result is in any
@@ -810,6 +892,15 @@ public abstract class BaseTypeChecker extends SourceChecker {
             checker.typeProcessingOver();
         }
 
+        PhaseStatistics phaseStatistics = getPhaseStatistics();
+        if (phaseStatistics != null) {
+            System.out.println(phaseStatistics.totalReport(getClass().getSimpleName()));
+        }
+        HotMethodStatistics hotMethodStatistics = getHotMethodStatistics();
+        if (hotMethodStatistics != null) {
+            System.out.println(hotMethodStatistics.report(getClass().getSimpleName()));
+        }
+
         super.typeProcessingOver();
     }
 
@@ -906,6 +997,22 @@ public abstract class BaseTypeChecker extends SourceChecker {
         return false;
     }
 
+    @Override
+    protected void printStats() {
+        super.printStats();
+
+        TypeHierarchy typeHierarchy = getTypeFactory().getTypeHierarchy();
+        if (typeHierarchy instanceof DefaultTypeHierarchy) {
+            System.out.println(
+                    getClass().getSimpleName()
+                            + " "
+                            + ((DefaultTypeHierarchy) typeHierarchy).getSubtypeMemoStatistics());
+        }
+        for (String cacheStatistics : getTypeFactory().getCacheStatistics()) {
+            System.out.println(getClass().getSimpleName() + " " + cacheStatistics);
+        }
+    }
+
     @Override
     protected void shutdownHook() {
         super.shutdownHook();
@@ -3,12 +3,11 @@ package org.checkerframework.common.value;
 import org.checkerframework.common.value.qual.ArrayLen;
 import org.checkerframework.common.value.qual.ArrayLenRange;
 import org.checkerframework.common.value.qual.IntVal;
+import org.checkerframework.common.value.util.LongValueSet;
 import org.checkerframework.common.value.util.Range;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.plumelib.util.CollectionsPlume;
-import org.plumelib.util.StringsPlume;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.lang.model.element.AnnotationMirror;
@@ -24,17 +23,25 @@ import javax.lang.model.element.AnnotationMirror;
  */
 class RangeOrListOfValues {
     private Range range;
-    private List<Integer> values;
+    private LongValueSet values;
     private boolean isRange;
 
-    public RangeOrListOfValues(List<Integer> values) {
-        this.values = new ArrayList<>();
+    /**
+     * The maximum number of values in the list; if more are added, this becomes a range. See {@link
+     * ValueAnnotatedTypeFactory#getMaxValues}.
+     */
+    private final int maxValues;
+
+    public RangeOrListOfValues(List<Integer> values, int maxValues) {
+        this.values = LongValueSet.EMPTY;
+        this.maxValues = maxValues;
         isRange = false;
         addAll(values);
     }
 
-    public RangeOrListOfValues(Range range) {
+    public RangeOrListOfValues(Range range, int maxValues) {
         this.range = range;
+        this.maxValues = maxValues;
         isRange = true;
     }
 
@@ -61,12 +68,8 @@ class RangeOrListOfValues {
         if (isRange) {
             range = range.union(Range.create(newValues));
         } else {
-            for (Integer i : newValues) {
-                if (!values.contains(i)) {
-                    values.add(i);
-                }
-            }
-            if (values.size() > ValueAnnotatedTypeFactory.MAX_VALUES) {
+            values = values.union(LongValueSet.create(newValues));
+            if (values.size() > maxValues) {
                 convertToRange();
             }
         }
@@ -83,7 +86,8 @@ class RangeOrListOfValues {
         if (isRange) {
             return atypeFactory.createArrayLenRangeAnnotation(range);
         } else {
-            return atypeFactory.createArrayLenAnnotation(values);
+            return atypeFactory.createArrayLenAnnotation(
+                    CollectionsPlume.mapList(Long::intValue, values.toList()));
         }
     }
 
@@ -121,7 +125,7 @@ class RangeOrListOfValues {
     public void convertToRange() {
         if (!isRange) {
             isRange = true;
-            range = Range.create(values);
+            range = values.toRange();
             values = null;
         }
     }
@@ -131,13 +135,7 @@ class RangeOrListOfValues {
         if (isRange) {
             return range.toString();
         } else {
-            if (values.isEmpty()) {
-                return "[]";
-            }
-            String res = "[";
-            res += StringsPlume.join(", ", values);
-            res += "]";
-            return res;
+            return values.toString();
         }
     }
 }
@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
@@ -52,6 +54,39 @@ public class ReflectiveEvaluator {
      */
     private final boolean reportWarnings;
 
+    /**
+     * Whether to cache method objects and the results of method calls. False if the
+     * -AatfDoNotCache command-line option is supplied.
+     */
+    private final boolean shouldCache;
+
+    /** The maximum number of entries in {@link #methodCache}. */
+    private static final int METHOD_CACHE_SIZE = 300;
+
+    /** The maximum number of entries in {@link #resultCache}. */
+    private static final int RESULT_CACHE_SIZE = 5000;
+
+    /**
+     * Caches the result of {@link #getMethodObject}. Methods that could not be found are not
+     * cached, so that each call site reports its own warning.
+     */
+    private final Map<ExecutableElement, Method> methodCache =
+            CollectionsPlume.createLruCache(METHOD_CACHE_SIZE);
+
+    /**
+     * Caches the results of invocations of statically executable methods. Only invocations whose
+     * receiver, arguments, and result are immutable values are cached; see {@link
+     * #isImmutableValue}. Invocations that throw an exception are not cached.
+     */
+    private final Map<Invocation, @Nullable Object> resultCache =
+            CollectionsPlume.createLruCache(RESULT_CACHE_SIZE);
+
+    /** The number of times that {@link #resultCache} contained the result of an invocation. */
+    private long resultCacheHits = 0;
+
+    /** The number of times that {@link #resultCache} lacked the result of an invocation. */
+    private long resultCacheMisses = 0;
+
     /**
      * Create a new ReflectiveEvaluator.
      *
@@ -63,6 +98,7 @@ public class ReflectiveEvaluator {
             BaseTypeChecker checker, ValueAnnotatedTypeFactory factory, boolean reportWarnings) {
         this.checker = checker;
         this.reportWarnings = reportWarnings;
+        this.shouldCache = factory.shouldCache;
     }
 
     /**
@@ -113,7 +149,7 @@ public class ReflectiveEvaluator {
         for (Object[] arguments : listOfArguments) {
             for (Object receiver : receiverValues) {
                 try {
-                    results.add(method.invoke(receiver, arguments));
+                    results.add(invoke(method, receiver, arguments));
                 } catch (InvocationTargetException e) {
                     if (reportWarnings) {
                         checker.reportWarning(
@@ -156,6 +192,135 @@ public class ReflectiveEvaluator {
         return results;
     }
 
+    /**
+     * Invokes the given method, or returns the result of a previous invocation with equal receiver
+     * and arguments. Statically executable methods are deterministic, so the result does not
+     * depend on when the method is invoked.
+     *
+     * @param method the method to invoke
+     * @param receiver the receiver, or null if the method is static
+     * @param arguments the arguments, or null if the method has no parameters
+     * @return the result of invoking {@code method}
+     * @throws InvocationTargetException if the method throws an exception
+     * @throws IllegalAccessException if the method is inaccessible
+     */
+    private @Nullable Object invoke(
+            Method method, @Nullable Object receiver, @Nullable Object @Nullable [] arguments)
+            throws InvocationTargetException, IllegalAccessException {
+        if (!shouldCache || !isImmutableValue(receiver) || !isImmutableValue(arguments)) {
+            return method.invoke(receiver, arguments);
+        }
+        Invocation invocation = new Invocation(method, receiver, arguments);
+        if (resultCache.containsKey(invocation)) {
+            resultCacheHits++;
+            return resultCache.get(invocation);
+        }
+        resultCacheMisses++;
+        Object result = method.invoke(receiver, arguments);
+        if (isImmutableValue(result)) {
+            resultCache.put(invocation, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the given value cannot be modified, so that it may be part of the key or the
+     * value of {@link #resultCache}. Arrays of immutable values are accepted because the argument
+     * arrays that this class creates are never modified after an invocation.
+     *
+     * @param value a receiver, an argument, an array of arguments, or a result
+     * @return true if {@code value} is null, a string, a boxed primitive, or an {@code Object[]}
+     *     of such values
+     */
+    private static boolean isImmutableValue(@Nullable Object value) {
+        if (value == null
+                || value instanceof String
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Byte
+                || value instanceof Short
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Float
+                || value instanceof Double) {
+            return true;
+        }
+        if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                if (!isImmutableValue(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /** An invocation of a method: the key of {@link #resultCache}. */
+    private static final class Invocation {
+        /** The invoked method. */
+        private final Method method;
+
+        /** The receiver, or null if the method is static. */
+        private final @Nullable Object receiver;
+
+        /** The arguments, or null if the method has no parameters. */
+        private final @Nullable Object @Nullable [] arguments;
+
+        /** The hash code of this invocation. */
+        private final int hashCode;
+
+        /**
+         * Creates an Invocation.
+         *
+         * @param method the invoked method
+         * @param receiver the receiver, or null if the method is static
+         * @param arguments the arguments, or null if the method has no parameters
+         */
+        Invocation(
+                Method method,
+                @Nullable Object receiver,
+                @Nullable Object @Nullable [] arguments) {
+            this.method = method;
+            this.receiver = receiver;
+            this.arguments = arguments;
+            this.hashCode = Objects.hash(method, receiver) * 31 + Arrays.deepHashCode(arguments);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Invocation)) {
+                return false;
+            }
+            Invocation other = (Invocation) obj;
+            // Objects.equals distinguishes 0.0 from -0.0 and, unlike ==, considers NaN equal to
+            // itself, which is what memoization requires.
+            return method.equals(other.method)
+                    && Objects.equals(receiver, other.receiver)
+                    && Arrays.deepEquals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Returns the hit rate of the cache of the results of method invocations. Used by the {@code
+     * -AresourceStats} command-line option.
+     *
+     * @return a description of the statistics of the cache of method results
+     */
+    public String getCacheStatistics() {
+        return String.format(
+                "ReflectiveEvaluator result cache: %d hits, %d misses",
+                resultCacheHits, resultCacheMisses);
+    }
+
     /** An empty Object array. */
     private static final Object[] emptyObjectArray = new Object[] {};
 
@@ -198,6 +363,12 @@ public class ReflectiveEvaluator {
      */
     private @Nullable Method getMethodObject(MethodInvocationTree tree) {
         ExecutableElement ele = TreeUtils.elementFromUse(tree);
+        if (shouldCache) {
+            Method cached = methodCache.get(ele);
+            if (cached != null) {
+                return cached;
+            }
+        }
         List<Class<?>> paramClasses = null;
         try {
             @CanonicalNameOrEmpty String className =
@@ -213,6 +384,9 @@ public class ReflectiveEvaluator {
             if (!acc) {
                 method.setAccessible(true);
             }
+            if (shouldCache) {
+                methodCache.put(ele, method);
+            }
             return method;
         } catch (ClassNotFoundException | UnsupportedClassVersionError | NoClassDefFoundError e) {
             if (reportWarnings) {
@@ -28,6 +28,7 @@ import org.checkerframework.common.value.qual.MinLenFieldInvariant;
 import org.checkerframework.common.value.qual.PolyValue;
 import org.checkerframework.common.value.qual.StringVal;
 import org.checkerframework.common.value.qual.UnknownVal;
+import org.checkerframework.common.value.util.LongValueSet;
 import org.checkerframework.common.value.util.NumberUtils;
 import org.checkerframework.common.value.util.Range;
 import org.checkerframework.dataflow.expression.ArrayAccess;
@@ -60,6 +61,7 @@ import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypeKindUtils;
 import org.checkerframework.javacutil.TypeSystemError;
 import org.checkerframework.javacutil.TypesUtils;
+import org.checkerframework.javacutil.UserError;
 import org.plumelib.util.ArraySet;
 import org.plumelib.util.CollectionsPlume;
 
@@ -70,6 +72,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
@@ -137,8 +140,11 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     public static final String DOES_NOT_MATCH_REGEX_NAME =
             "org.checkerframework.common.value.qual.DoesNotMatchRegex";
 
-    /** The maximum number of values allowed in an annotation's array. */
-    protected static final int MAX_VALUES = 10;
+    /**
+     * The default maximum number of values allowed in an annotation's array. The {@code
+     * -AmaxValues} command-line option overrides it; see {@link #getMaxValues}.
+     */
+    protected static final int DEFAULT_MAX_VALUES = 10;
 
     /** The top type for this hierarchy. */
     protected final AnnotationMirror UNKNOWNVAL =
@@ -215,9 +221,53 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     public final ExecutableElement stringValValueElement =
             TreeUtils.getMethod(StringVal.class, "value", 0, processingEnv);
 
+    /**
+     * The decoded, deduplicated, and sorted values of the array-valued annotations, such as {@code
+     * IntVal}, {@code StringVal}, and {@code ArrayLen}. The lists are unmodifiable; the public
+     * getters return copies of them. Annotation mirrors use identity equality, so each mirror is
+     * decoded at most once while it is cached.
+     */
+    private final Map<AnnotationMirror, List<?>> sortedValuesCache = createCache(getCacheSize());
+
+    /**
+     * The result of {@link #getIntValueSet} for {@code @IntVal} annotations, so that the transfer
+     * function does not build the same set from the boxed values in {@link #sortedValuesCache}
+     * repeatedly.
+     */
+    private final Map<AnnotationMirror, LongValueSet> intValueSetCache =
+            createCache(getCacheSize());
+
+    /** The result of {@link #getRange} for annotations that represent a range. */
+    private final Map<AnnotationMirror, Range> rangeCache = createCache(getCacheSize());
+
+    /**
+     * The {@code @IntVal} annotations created by {@link #createIntValAnnotation}, by their
+     * deduplicated and sorted values, so that the transfer function does not build the same
+     * annotation repeatedly.
+     */
+    private final Map<List<Long>, AnnotationMirror> intValAnnotationCache =
+            createCache(getCacheSize());
+
+    /**
+     * The {@code @IntVal} annotations created by {@link #createIntValAnnotation(LongValueSet)}, by
+     * their values, so that the transfer function does not box the same values repeatedly.
+     */
+    private final Map<LongValueSet, AnnotationMirror> intValSetAnnotationCache =
+            createCache(getCacheSize());
+
+    /**
+     * The {@code @IntRange} annotations created by {@link #createIntRangeAnnotation(long, long)},
+     * by their bounds.
+     */
+    private final Map<Range, AnnotationMirror> intRangeAnnotationCache =
+            createCache(getCacheSize());
+
     /** Should this type factory report warnings? */
     private final boolean reportEvalWarnings;
 
+    /** The maximum number of values allowed in an annotation's array; see {@link #getMaxValues}. */
+    private final int maxValues;
+
     /** Helper class that evaluates statically executable methods, constructors, and fields. */
     // TODO: only used in ValueTreeAnnotator. Should it move there?
     protected final ReflectiveEvaluator evaluator;
@@ -231,6 +281,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
         reportEvalWarnings = checker.hasOption(ValueChecker.REPORT_EVAL_WARNS);
         Range.ignoreOverflow = checker.hasOption(ValueChecker.IGNORE_RANGE_OVERFLOW);
+        maxValues = readMaxValuesOption();
         evaluator = new ReflectiveEvaluator(checker, this, reportEvalWarnings);
 
         addAliasedTypeAnnotation("android.support.annotation.IntRange", IntRange.class, true);
@@ -283,11 +334,52 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         }
     }
 
+    /**
+     * Returns the value of the {@code -AmaxValues} command-line option, or {@link
+     * #DEFAULT_MAX_VALUES} if it is not supplied.
+     *
+     * @return the maximum number of values allowed in an annotation's array
+     */
+    private int readMaxValuesOption() {
+        String option = checker.getOption(ValueChecker.MAX_VALUES);
+        if (option == null) {
+            return DEFAULT_MAX_VALUES;
+        }
+        int result;
+        try {
+            result = Integer.parseInt(option);
+        } catch (NumberFormatException e) {
+            throw new UserError("maxValues was not an integer: " + option);
+        }
+        if (result < 1) {
+            throw new UserError("maxValues must be positive: " + option);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of values allowed in an annotation's array, such as the values of
+     * an {@code @IntVal} annotation. An expression that could have more values gets a range or a
+     * less precise annotation instead.
+     *
+     * @return the maximum number of values allowed in an annotation's array
+     */
+    public int getMaxValues() {
+        return maxValues;
+    }
+
     /** Gets a helper object that holds references to methods with special handling. */
     ValueMethodIdentifier getMethodIdentifier() {
         return methods;
     }
 
+    @Override
+    public List<String> getCacheStatistics() {
+        List<String> result = super.getCacheStatistics();
+        result.add(evaluator.getCacheStatistics());
+        return result;
+    }
+
     @Override
     protected void applyInferredAnnotations(AnnotatedTypeMirror type, CFValue inferred) {
         // Inference can widen an IntRange beyond the values possible for the Java type. Change the
@@ -864,8 +956,9 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     /**
      * Returns a {@link IntVal} or {@link IntRange} annotation using the values. If {@code values}
      * is null, then UnknownVal is returned; if {@code values} is empty, then bottom is returned. If
-     * the number of {@code values} is greater than MAX_VALUES, return an {@link IntRange}. In other
-     * cases, the values are sorted and duplicates are removed before an {@link IntVal} is created.
+     * the number of {@code values} is greater than {@link #getMaxValues}, return an {@link
+     * IntRange}. In other cases, the values are sorted and duplicates are removed before an {@link
+     * IntVal} is created.
      *
      * @param values list of longs; duplicates are allowed and the values may be in any order
      * @return an annotation depends on the values
@@ -878,15 +971,54 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = CollectionsPlume.withoutDuplicatesSorted(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             long valMin = values.get(0);
             long valMax = values.get(values.size() - 1);
             return createIntRangeAnnotation(valMin, valMax);
-        } else {
+        }
+        if (!shouldCache) {
             AnnotationBuilder builder = new AnnotationBuilder(processingEnv, IntVal.class);
             builder.setValue("value", values);
             return builder.build();
         }
+        AnnotationMirror result = intValAnnotationCache.get(values);
+        if (result == null) {
+            // withoutDuplicatesSorted may have returned the argument, which the caller may modify.
+            List<Long> key = Collections.unmodifiableList(new ArrayList<>(values));
+            AnnotationBuilder builder = new AnnotationBuilder(processingEnv, IntVal.class);
+            builder.setValue("value", key);
+            result = builder.build();
+            intValAnnotationCache.put(key, result);
+            sortedValuesCache.put(result, key);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a {@link IntVal} or {@link IntRange} annotation using the values. If {@code values}
+     * is empty, then bottom is returned. If the number of {@code values} is greater than {@link
+     * #getMaxValues}, return an {@link IntRange}, without boxing the values.
+     *
+     * @param values a set of longs
+     * @return an annotation depends on the values
+     */
+    /*package-private*/ AnnotationMirror createIntValAnnotation(LongValueSet values) {
+        if (values.isEmpty()) {
+            return BOTTOMVAL;
+        }
+        if (values.size() > maxValues) {
+            return createIntRangeAnnotation(values.min(), values.max());
+        }
+        if (!shouldCache) {
+            return createIntValAnnotation(values.toList());
+        }
+        AnnotationMirror result = intValSetAnnotationCache.get(values);
+        if (result == null) {
+            result = createIntValAnnotation(values.toList());
+            intValSetAnnotationCache.put(values, result);
+            intValueSetCache.put(result, values);
+        }
+        return result;
     }
 
     /**
@@ -898,7 +1030,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
      */
     public AnnotationMirror convertIntRangeToIntVal(AnnotationMirror intRangeAnno) {
         Range range = getRange(intRangeAnno);
-        List<Long> values = ValueCheckerUtils.getValuesFromRange(range, Long.class);
+        List<Long> values = ValueCheckerUtils.getValuesFromRange(range, Long.class, maxValues);
         return createIntValAnnotation(values);
     }
 
@@ -918,7 +1050,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = CollectionsPlume.withoutDuplicatesSorted(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             return UNKNOWNVAL;
         } else {
             AnnotationBuilder builder = new AnnotationBuilder(processingEnv, DoubleVal.class);
@@ -966,7 +1098,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = CollectionsPlume.withoutDuplicatesSorted(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             // Too many strings are replaced by their lengths
             List<Integer> lengths = ValueCheckerUtils.getLengthsForStringValues(values);
             return createArrayLenAnnotation(lengths);
@@ -997,7 +1129,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         values = CollectionsPlume.withoutDuplicatesSorted(values);
         if (values.isEmpty() || Collections.min(values) < 0) {
             return BOTTOMVAL;
-        } else if (values.size() > MAX_VALUES) {
+        } else if (values.size() > maxValues) {
             return createArrayLenRangeAnnotation(Collections.min(values), Collections.max(values));
         } else {
             AnnotationBuilder builder = new AnnotationBuilder(processingEnv, ArrayLen.class);
@@ -1022,7 +1154,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = CollectionsPlume.withoutDuplicatesSorted(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             return UNKNOWNVAL;
         } else {
             // TODO: This seems wasteful.  Why not create the 3 interesting AnnotationMirrors (with
@@ -1051,7 +1183,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = CollectionsPlume.withoutDuplicatesSorted(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             return UNKNOWNVAL;
         } else {
             List<Long> longValues =
@@ -1076,7 +1208,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         }
         values = CollectionsPlume.withoutDuplicatesSorted(values);
-        if (values.size() > MAX_VALUES) {
+        if (values.size() > maxValues) {
             return UNKNOWNVAL;
         } else {
             return createDoubleValAnnotation(values);
@@ -1121,6 +1253,27 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
      */
     /*package-private*/ AnnotationMirror createIntRangeAnnotation(long from, long to) {
         assert from <= to;
+        if (!shouldCache) {
+            return buildIntRangeAnnotation(from, to);
+        }
+        Range range = Range.create(from, to);
+        AnnotationMirror result = intRangeAnnotationCache.get(range);
+        if (result == null) {
+            result = buildIntRangeAnnotation(from, to);
+            intRangeAnnotationCache.put(range, result);
+            rangeCache.put(result, range);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a new {@code @IntRange} annotation from the two (inclusive) bounds.
+     *
+     * @param from the lower bound
+     * @param to the upper bound
+     * @return a new {@code @IntRange} annotation
+     */
+    private AnnotationMirror buildIntRangeAnnotation(long from, long to) {
         AnnotationBuilder builder = new AnnotationBuilder(processingEnv, IntRange.class);
         builder.setValue("from", from);
         builder.setValue("to", to);
@@ -1136,10 +1289,11 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             return BOTTOMVAL;
         } else if (range.isLongEverything()) {
             return UNKNOWNVAL;
-        } else if (range.isWiderThan(MAX_VALUES)) {
+        } else if (range.isWiderThan(maxValues)) {
             return createIntRangeAnnotation(range.from, range.to);
         } else {
-            List<Long> newValues = ValueCheckerUtils.getValuesFromRange(range, Long.class);
+            List<Long> newValues =
+                    ValueCheckerUtils.getValuesFromRange(range, Long.class, maxValues);
             return createIntValAnnotation(newValues);
         }
     }
@@ -1262,8 +1416,8 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
     /**
      * Converts a {@code @StringVal} annotation to an {@code @ArrayLen} annotation. If the
-     * {@code @StringVal} annotation contains string values of more than MAX_VALUES distinct
-     * lengths, {@code @ArrayLenRange} annotation is returned instead.
+     * {@code @StringVal} annotation contains string values of more than {@link #getMaxValues}
+     * distinct lengths, {@code @ArrayLenRange} annotation is returned instead.
      *
      * @param stringValAnno a {@code @StringVal} annotation
      * @return a corresponding {@code @ArrayLen} annotation
@@ -1318,6 +1472,28 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         if (rangeAnno == null) {
             return null;
         }
+        if (!shouldCache) {
+            return decodeRange(rangeAnno);
+        }
+        Range range = rangeCache.get(rangeAnno);
+        if (range == null) {
+            range = decodeRange(rangeAnno);
+            if (range != null) {
+                rangeCache.put(rangeAnno, range);
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Returns the {@link Range} that the given annotation represents; the implementation of {@link
+     * #getRange}, without caching.
+     *
+     * @param rangeAnno an annotation
+     * @return the {@link Range} that the annotation represents, or null if it does not represent a
+     *     range
+     */
+    private @Nullable Range decodeRange(AnnotationMirror rangeAnno) {
         switch (AnnotationUtils.annotationName(rangeAnno)) {
             case INTRANGE_FROMPOS_NAME:
                 return Range.create(1, Integer.MAX_VALUE);
@@ -1326,7 +1502,8 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
             case INTRANGE_FROMGTENEGONE_NAME:
                 return Range.create(-1, Integer.MAX_VALUE);
             case INTVAL_NAME:
-                return ValueCheckerUtils.getRangeFromValues(getIntValues(rangeAnno));
+                return ValueCheckerUtils.getRangeFromValues(
+                        getSortedValues(rangeAnno, intValValueElement, Long.class));
             case INTRANGE_NAME:
                 // Assume rangeAnno is well-formed, i.e., 'from' is less than or equal to 'to'.
                 return Range.create(getIntRangeFromValue(rangeAnno), getIntRangeToValue(rangeAnno));
@@ -1354,10 +1531,37 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         if (intAnno == null) {
             return null;
         }
-        List<Long> list =
-                AnnotationUtils.getElementValueArray(intAnno, intValValueElement, Long.class);
-        list = CollectionsPlume.withoutDuplicatesSorted(list);
-        return list;
+        return new ArrayList<>(getSortedValues(intAnno, intValValueElement, Long.class));
+    }
+
+    /**
+     * Returns the set of possible values of an {@code @IntVal} annotation, without copying them
+     * into a new list as {@link #getIntValues} does.
+     *
+     * @param intAnno an {@code @IntVal} annotation
+     * @return the possible values
+     */
+    /*package-private*/ LongValueSet getIntValueSet(AnnotationMirror intAnno) {
+        if (!shouldCache) {
+            return LongValueSet.create(getSortedValues(intAnno, intValValueElement, Long.class));
+        }
+        LongValueSet result = intValueSetCache.get(intAnno);
+        if (result == null) {
+            result = LongValueSet.create(getSortedValues(intAnno, intValValueElement, Long.class));
+            intValueSetCache.put(intAnno, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of possible values of a {@code @DoubleVal} annotation, without copying
+     * them into a new list as {@link #getDoubleValues} does.
+     *
+     * @param doubleAnno a {@code @DoubleVal} annotation
+     * @return the number of possible values
+     */
+    /*package-private*/ int countDoubleValues(AnnotationMirror doubleAnno) {
+        return getSortedValues(doubleAnno, doubleValValueElement, Double.class).size();
     }
 
     /**
@@ -1373,11 +1577,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         if (doubleAnno == null) {
             return null;
         }
-        List<Double> list =
-                AnnotationUtils.getElementValueArray(
-                        doubleAnno, doubleValValueElement, Double.class);
-        list = CollectionsPlume.withoutDuplicatesSorted(list);
-        return list;
+        return new ArrayList<>(getSortedValues(doubleAnno, doubleValValueElement, Double.class));
     }
 
     /**
@@ -1393,11 +1593,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         if (arrayAnno == null) {
             return null;
         }
-        List<Integer> list =
-                AnnotationUtils.getElementValueArray(
-                        arrayAnno, arrayLenValueElement, Integer.class);
-        list = CollectionsPlume.withoutDuplicatesSorted(list);
-        return list;
+        return new ArrayList<>(getSortedValues(arrayAnno, arrayLenValueElement, Integer.class));
     }
 
     /**
@@ -1484,11 +1680,7 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         if (stringAnno == null) {
             return null;
         }
-        List<String> list =
-                AnnotationUtils.getElementValueArray(
-                        stringAnno, stringValValueElement, String.class);
-        list = CollectionsPlume.withoutDuplicatesSorted(list);
-        return list;
+        return new ArrayList<>(getSortedValues(stringAnno, stringValValueElement, String.class));
     }
 
     /**
@@ -1505,11 +1697,8 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         if (matchesRegexAnno == null) {
             return null;
         }
-        List<String> list =
-                AnnotationUtils.getElementValueArray(
-                        matchesRegexAnno, matchesRegexValueElement, String.class);
-        list = CollectionsPlume.withoutDuplicatesSorted(list);
-        return list;
+        return new ArrayList<>(
+                getSortedValues(matchesRegexAnno, matchesRegexValueElement, String.class));
     }
 
     /**
@@ -1526,11 +1715,40 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         if (doesNotMatchRegexAnno == null) {
             return null;
         }
-        List<String> list =
-                AnnotationUtils.getElementValueArray(
-                        doesNotMatchRegexAnno, doesNotMatchRegexValueElement, String.class);
-        list = CollectionsPlume.withoutDuplicatesSorted(list);
-        return list;
+        return new ArrayList<>(
+                getSortedValues(
+                        doesNotMatchRegexAnno, doesNotMatchRegexValueElement, String.class));
+    }
+
+    /**
+     * Returns the values of the given array-valued element of the given annotation, deduplicated
+     * and sorted. The result is cached; see {@link #sortedValuesCache}.
+     *
+     * @param <T> the type of the values
+     * @param anno an annotation
+     * @param valueElement the element of {@code anno} to read; every call with the same annotation
+     *     must pass the same element and type
+     * @param expectedType the type of the values
+     * @return the values, deduplicated and sorted, in an unmodifiable list
+     */
+    @SuppressWarnings("unchecked") // each annotation is always read with the same expectedType
+    private <T extends Comparable<T>> List<T> getSortedValues(
+            AnnotationMirror anno, ExecutableElement valueElement, Class<T> expectedType) {
+        if (shouldCache) {
+            List<?> cached = sortedValuesCache.get(anno);
+            if (cached != null) {
+                return (List<T>) cached;
+            }
+        }
+        List<T> values =
+                Collections.unmodifiableList(
+                        CollectionsPlume.withoutDuplicatesSorted(
+                                AnnotationUtils.getElementValueArray(
+                                        anno, valueElement, expectedType)));
+        if (shouldCache) {
+            sortedValuesCache.put(anno, values);
+        }
+        return values;
     }
 
     /**
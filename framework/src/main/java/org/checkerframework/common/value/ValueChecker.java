@@ -22,7 +22,8 @@ import java.util.Set;
 @SupportedOptions({
     ValueChecker.REPORT_EVAL_WARNS,
     ValueChecker.IGNORE_RANGE_OVERFLOW,
-    ValueChecker.NON_NULL_STRINGS_CONCATENATION
+    ValueChecker.NON_NULL_STRINGS_CONCATENATION,
+    ValueChecker.MAX_VALUES
 })
 public class ValueChecker extends BaseTypeChecker {
     /**
@@ -37,6 +38,12 @@ public class ValueChecker extends BaseTypeChecker {
     /** Command-line option that assumes most expressions in String concatenations can be null. */
     public static final String NON_NULL_STRINGS_CONCATENATION = "nonNullStringsConcatenation";
 
+    /**
+     * Command-line option to set the maximum number of values in a constant-value annotation, such
+     * as {@code @IntVal}; see {@link ValueAnnotatedTypeFactory#getMaxValues}.
+     */
+    public static final String MAX_VALUES = "maxValues";
+
     @Override
     protected BaseTypeVisitor<?> createSourceVisitor() {
         return new ValueVisitor(this);
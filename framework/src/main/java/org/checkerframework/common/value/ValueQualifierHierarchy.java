@@ -142,7 +142,7 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
 
     @Override
     public int numberOfIterationsBeforeWidening() {
-        return ValueAnnotatedTypeFactory.MAX_VALUES + 1;
+        return atypeFactory.getMaxValues() + 1;
     }
 
     @Override
@@ -527,22 +527,25 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
                 return superRange.contains(subLongRange);
             case ValueAnnotatedTypeFactory.INTRANGE_NAME + ValueAnnotatedTypeFactory.DOUBLEVAL_NAME:
                 Range subRange = atypeFactory.getRange(subAnno);
-                if (subRange.isWiderThan(ValueAnnotatedTypeFactory.MAX_VALUES)) {
+                if (subRange.isWiderThan(atypeFactory.getMaxValues())) {
                     return false;
                 }
                 List<Double> superDoubleValues = atypeFactory.getDoubleValues(superAnno);
                 List<Double> subDoubleValues =
-                        ValueCheckerUtils.getValuesFromRange(subRange, Double.class);
+                        ValueCheckerUtils.getValuesFromRange(
+                                subRange, Double.class, atypeFactory.getMaxValues());
                 return superDoubleValues.containsAll(subDoubleValues);
             case ValueAnnotatedTypeFactory.INTRANGE_NAME + ValueAnnotatedTypeFactory.INTVAL_NAME:
             case ValueAnnotatedTypeFactory.ARRAYLENRANGE_NAME
                     + ValueAnnotatedTypeFactory.ARRAYLEN_NAME:
                 Range subRange2 = atypeFactory.getRange(subAnno);
-                if (subRange2.isWiderThan(ValueAnnotatedTypeFactory.MAX_VALUES)) {
+                if (subRange2.isWiderThan(atypeFactory.getMaxValues())) {
                     return false;
                 }
                 List<Long> superValues2 = atypeFactory.getArrayLenOrIntValue(superAnno);
-                List<Long> subValues2 = ValueCheckerUtils.getValuesFromRange(subRange2, Long.class);
+                List<Long> subValues2 =
+                        ValueCheckerUtils.getValuesFromRange(
+                                subRange2, Long.class, atypeFactory.getMaxValues());
                 return superValues2.containsAll(subValues2);
             case ValueAnnotatedTypeFactory.ARRAYLENRANGE_NAME
                     + ValueAnnotatedTypeFactory.STRINGVAL_NAME:
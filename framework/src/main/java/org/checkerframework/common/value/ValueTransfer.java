@@ -6,6 +6,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.value.qual.ArrayLen;
 import org.checkerframework.common.value.qual.ArrayLenRange;
 import org.checkerframework.common.value.qual.StringVal;
+import org.checkerframework.common.value.util.LongValueSet;
 import org.checkerframework.common.value.util.NumberMath;
 import org.checkerframework.common.value.util.NumberUtils;
 import org.checkerframework.common.value.util.Range;
@@ -57,6 +58,7 @@ import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreeUtils;
+import org.checkerframework.javacutil.TypeKindUtils;
 import org.checkerframework.javacutil.TypeSystemError;
 import org.checkerframework.javacutil.TypesUtils;
 import org.plumelib.util.CollectionsPlume;
@@ -84,6 +86,14 @@ public class ValueTransfer extends CFTransfer {
     /** True if -AnonNullStringsConcatenation was passed on the command line. */
     private final boolean nonNullStringsConcatenation;
 
+    /**
+     * The maximum number of pairs of operands for which a binary operation on two sets of values is
+     * computed pair by pair. An operation with more pairs is computed from the ranges of its
+     * operands instead. The number of values of an operand is limited by {@code -AmaxValues}, which
+     * has no upper bound, so the number of pairs may not even fit in an {@code int}.
+     */
+    private static final long MAX_OPERAND_PAIRS = 1 << 16;
+
     /**
      * Create a new ValueTransfer.
      *
@@ -188,7 +198,8 @@ public class ValueTransfer extends CFTransfer {
             // @IntVal is not checked for, because if it is present, we would already have the
             // actual string values.
             Range lengthRange = getIntRangeStringLengthRange(subNode, p);
-            return ValueCheckerUtils.getValuesFromRange(lengthRange, Integer.class);
+            return ValueCheckerUtils.getValuesFromRange(
+                    lengthRange, Integer.class, atypeFactory.getMaxValues());
         } else if (subNodeTypeKind == TypeKind.BYTE) {
             // bytes are between 1 and 4 characters long
             return ValueCheckerUtils.getValuesFromRange(Range.create(1, 4), Integer.class);
@@ -238,7 +249,9 @@ public class ValueTransfer extends CFTransfer {
             return getStringValues(((StringConversionNode) subNode).getOperand(), p);
         } else if (isIntRange(subNode, p)) {
             Range range = getIntRange(subNode, p);
-            List<Long> longValues = ValueCheckerUtils.getValuesFromRange(range, Long.class);
+            List<Long> longValues =
+                    ValueCheckerUtils.getValuesFromRange(
+                            range, Long.class, atypeFactory.getMaxValues());
             values = NumberUtils.castNumbers(subNode.getType(), longValues);
         } else {
             values = getNumericalValues(subNode, p);
@@ -311,7 +324,8 @@ public class ValueTransfer extends CFTransfer {
                     qualHierarchy.findAnnotationInHierarchy(
                             value.getAnnotations(), atypeFactory.UNKNOWNVAL);
             Range range = atypeFactory.getRange(intAnno);
-            return ValueCheckerUtils.getValuesFromRange(range, Character.class);
+            return ValueCheckerUtils.getValuesFromRange(
+                    range, Character.class, atypeFactory.getMaxValues());
         }
 
         return Collections.emptyList();
@@ -373,6 +387,47 @@ public class ValueTransfer extends CFTransfer {
         return NumberUtils.castNumbers(subNode.getType(), values);
     }
 
+    /**
+     * Returns the integral values of subNode, casted to the type of subNode. Returns null if
+     * subNode is not integral or its annotation is not {@code @IntVal} or {@code @BottomVal}, in
+     * which case {@link #getNumericalValues(Node, TransferInput)} must be used instead.
+     *
+     * @param subNode a node
+     * @param p the transfer input
+     * @return the integral values of subNode, or null if they cannot be represented as a {@link
+     *     LongValueSet}
+     */
+    private @Nullable LongValueSet getIntegralValues(
+            Node subNode, TransferInput<CFValue, CFStore> p) {
+        TypeKind typeKind = TypeKindUtils.primitiveOrBoxedToTypeKind(subNode.getType());
+        if (typeKind == null || !TypeKindUtils.isIntegral(typeKind)) {
+            return null;
+        }
+        AnnotationMirror valueAnno = getValueAnnotation(subNode, p);
+        if (valueAnno == null) {
+            return null;
+        } else if (AnnotationUtils.areSameByName(
+                valueAnno, ValueAnnotatedTypeFactory.BOTTOMVAL_NAME)) {
+            return LongValueSet.EMPTY;
+        } else if (!AnnotationUtils.areSameByName(
+                valueAnno, ValueAnnotatedTypeFactory.INTVAL_NAME)) {
+            return null;
+        }
+        LongValueSet values = atypeFactory.getIntValueSet(valueAnno);
+        // Casts like NumberUtils.castNumbers, which converts the values of a char to int.
+        switch (typeKind) {
+            case BYTE:
+                return values.byteValues();
+            case SHORT:
+                return values.shortValues();
+            case CHAR:
+            case INT:
+                return values.intValues();
+            default:
+                return values;
+        }
+    }
+
     /** Get possible integer range from annotation. */
     private Range getIntRange(Node subNode, TransferInput<CFValue, CFStore> p) {
         AnnotationMirror val = getValueAnnotation(subNode, p);
@@ -586,11 +641,16 @@ public class ValueTransfer extends CFTransfer {
 
         RangeOrListOfValues rolv;
         if (atypeFactory.isIntRange(lengthAnno)) {
-            rolv = new RangeOrListOfValues(atypeFactory.getRange(lengthAnno));
+            rolv =
+                    new RangeOrListOfValues(
+                            atypeFactory.getRange(lengthAnno), atypeFactory.getMaxValues());
         } else if (AnnotationUtils.areSameByName(
                 lengthAnno, ValueAnnotatedTypeFactory.INTVAL_NAME)) {
             List<Long> lengthValues = atypeFactory.getIntValues(lengthAnno);
-            rolv = new RangeOrListOfValues(RangeOrListOfValues.convertLongsToInts(lengthValues));
+            rolv =
+                    new RangeOrListOfValues(
+                            RangeOrListOfValues.convertLongsToInts(lengthValues),
+                            atypeFactory.getMaxValues());
         } else {
             return;
         }
@@ -809,7 +869,14 @@ public class ValueTransfer extends CFTransfer {
             NumericalBinaryOps op,
             TransferInput<CFValue, CFStore> p) {
         if (!isIntRangeOrIntegralUnknownVal(leftNode, p)
-                && !isIntRangeOrIntegralUnknownVal(rightNode, p)) {
+                && !isIntRangeOrIntegralUnknownVal(rightNode, p)
+                && (long) countValues(leftNode, p) * countValues(rightNode, p)
+                        <= MAX_OPERAND_PAIRS) {
+            LongValueSet integralResult =
+                    calculateIntegralValuesBinaryOp(leftNode, rightNode, op, p);
+            if (integralResult != null) {
+                return atypeFactory.createIntValAnnotation(integralResult);
+            }
             List<Number> resultValues = calculateValuesBinaryOp(leftNode, rightNode, op, p);
             return atypeFactory.createNumberAnnotationMirror(resultValues);
         } else {
@@ -818,6 +885,29 @@ public class ValueTransfer extends CFTransfer {
         }
     }
 
+    /**
+     * Returns the number of values in the {@code @IntVal} or {@code @DoubleVal} annotation of a
+     * node, or 1 if its annotation does not list values.
+     *
+     * @param node a node
+     * @param p the transfer input
+     * @return the number of values that {@code node} may have, or 1 if they are not listed
+     */
+    private int countValues(Node node, TransferInput<CFValue, CFStore> p) {
+        AnnotationMirror valueAnno = getValueAnnotation(node, p);
+        if (valueAnno == null) {
+            return 1;
+        } else if (AnnotationUtils.areSameByName(
+                valueAnno, ValueAnnotatedTypeFactory.INTVAL_NAME)) {
+            return atypeFactory.getIntValueSet(valueAnno).size();
+        } else if (AnnotationUtils.areSameByName(
+                valueAnno, ValueAnnotatedTypeFactory.DOUBLEVAL_NAME)) {
+            return atypeFactory.countDoubleValues(valueAnno);
+        } else {
+            return 1;
+        }
+    }
+
     /** Calculate the result range after a binary operation between two numerical type nodes. */
     private Range calculateRangeBinaryOp(
             Node leftNode,
@@ -877,6 +967,92 @@ public class ValueTransfer extends CFTransfer {
         }
     }
 
+    /**
+     * Calculate the possible values after a binary operation between two integral type nodes,
+     * without boxing them. Returns null if the values of either node are not known or if either
+     * node is not integral; then {@link #calculateValuesBinaryOp} must be used instead.
+     *
+     * @param leftNode the node that represents the left operand
+     * @param rightNode the node that represents the right operand
+     * @param op the operator type
+     * @param p the transfer input
+     * @return the possible values of the result, or null
+     */
+    private @Nullable LongValueSet calculateIntegralValuesBinaryOp(
+            Node leftNode,
+            Node rightNode,
+            NumericalBinaryOps op,
+            TransferInput<CFValue, CFStore> p) {
+        LongValueSet lefts = getIntegralValues(leftNode, p);
+        if (lefts == null) {
+            return null;
+        }
+        LongValueSet rights = getIntegralValues(rightNode, p);
+        if (rights == null) {
+            return null;
+        }
+        // The type of a shift is the promoted type of its left operand; the type of any other
+        // operation is long if either operand is long, and int otherwise.
+        boolean isLong =
+                leftNode.getType().getKind() == TypeKind.LONG
+                        || (rightNode.getType().getKind() == TypeKind.LONG
+                                && op != NumericalBinaryOps.SHIFT_LEFT
+                                && op != NumericalBinaryOps.SIGNED_SHIFT_RIGHT
+                                && op != NumericalBinaryOps.UNSIGNED_SHIFT_RIGHT);
+        // The operands are within the range of their types, so performing the operations other
+        // than shifts on longs and then casting to int yields the same values as performing
+        // them on ints.
+        LongValueSet resultValues;
+        switch (op) {
+            case ADDITION:
+                resultValues = lefts.combine(rights, (l, r) -> l + r);
+                break;
+            case SUBTRACTION:
+                resultValues = lefts.combine(rights, (l, r) -> l - r);
+                break;
+            case MULTIPLICATION:
+                resultValues = lefts.combine(rights, (l, r) -> l * r);
+                break;
+            case DIVISION:
+                // Division by zero throws an exception, so it has no result.
+                resultValues = lefts.combine(rights.without(0), (l, r) -> l / r);
+                break;
+            case REMAINDER:
+                resultValues = lefts.combine(rights.without(0), (l, r) -> l % r);
+                break;
+            case SHIFT_LEFT:
+                resultValues =
+                        isLong
+                                ? lefts.combine(rights, (l, r) -> l << r)
+                                : lefts.combine(rights, (l, r) -> (int) l << r);
+                break;
+            case SIGNED_SHIFT_RIGHT:
+                resultValues =
+                        isLong
+                                ? lefts.combine(rights, (l, r) -> l >> r)
+                                : lefts.combine(rights, (l, r) -> (int) l >> r);
+                break;
+            case UNSIGNED_SHIFT_RIGHT:
+                resultValues =
+                        isLong
+                                ? lefts.combine(rights, (l, r) -> l >>> r)
+                                : lefts.combine(rights, (l, r) -> (int) l >>> r);
+                break;
+            case BITWISE_AND:
+                resultValues = lefts.combine(rights, (l, r) -> l & r);
+                break;
+            case BITWISE_OR:
+                resultValues = lefts.combine(rights, (l, r) -> l | r);
+                break;
+            case BITWISE_XOR:
+                resultValues = lefts.combine(rights, (l, r) -> l ^ r);
+                break;
+            default:
+                throw new TypeSystemError("ValueTransfer: unsupported operation: " + op);
+        }
+        return isLong ? resultValues : resultValues.intValues();
+    }
+
     /** Calculate the possible values after a binary operation between two numerical type nodes. */
     private @Nullable List<Number> calculateValuesBinaryOp(
             Node leftNode,
@@ -1097,6 +1273,28 @@ public class ValueTransfer extends CFTransfer {
     private AnnotationMirror calculateNumericalUnaryOp(
             Node operand, NumericalUnaryOps op, TransferInput<CFValue, CFStore> p) {
         if (!isIntRange(operand, p)) {
+            LongValueSet integralValues = getIntegralValues(operand, p);
+            if (integralValues != null) {
+                LongValueSet resultValues;
+                switch (op) {
+                    case PLUS:
+                        resultValues = integralValues;
+                        break;
+                    case MINUS:
+                        resultValues = integralValues.map(v -> -v);
+                        break;
+                    case BITWISE_COMPLEMENT:
+                        resultValues = integralValues.map(v -> ~v);
+                        break;
+                    default:
+                        throw new TypeSystemError("ValueTransfer: unsupported operation: " + op);
+                }
+                // Any integral type with less than 64 bits is promoted to int.
+                return atypeFactory.createIntValAnnotation(
+                        operand.getType().getKind() == TypeKind.LONG
+                                ? resultValues
+                                : resultValues.intValues());
+            }
             List<Number> resultValues = calculateValuesUnaryOp(operand, op, p);
             return atypeFactory.createNumberAnnotationMirror(resultValues);
         } else {
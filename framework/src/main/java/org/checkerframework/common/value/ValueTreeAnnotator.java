@@ -148,13 +148,16 @@ class ValueTreeAnnotator extends TreeAnnotator {
         } else {
             RangeOrListOfValues rolv = null;
             if (atypeFactory.isIntRange(dimType)) {
-                rolv = new RangeOrListOfValues(atypeFactory.getRange(dimType));
+                rolv =
+                        new RangeOrListOfValues(
+                                atypeFactory.getRange(dimType), atypeFactory.getMaxValues());
             } else if (AnnotationUtils.areSameByName(
                     dimType, ValueAnnotatedTypeFactory.INTVAL_NAME)) {
                 rolv =
                         new RangeOrListOfValues(
                                 RangeOrListOfValues.convertLongsToInts(
-                                        atypeFactory.getIntValues(dimType)));
+                                        atypeFactory.getIntValues(dimType)),
+                                atypeFactory.getMaxValues());
             }
             if (rolv != null) {
                 AnnotationMirror newQual = rolv.createAnnotation(atypeFactory);
@@ -201,7 +204,9 @@ class ValueTreeAnnotator extends TreeAnnotator {
                     if (rolv != null) {
                         rolv.addAll(currentLengths);
                     } else {
-                        arrayLenOfDimensions.add(new RangeOrListOfValues(currentLengths));
+                        arrayLenOfDimensions.add(
+                                new RangeOrListOfValues(
+                                        currentLengths, atypeFactory.getMaxValues()));
                     }
                 } else {
                     // Check for an arrayLenRange annotation
@@ -216,7 +221,8 @@ class ValueTreeAnnotator extends TreeAnnotator {
                     if (rolv != null) {
                         rolv.add(range);
                     } else {
-                        arrayLenOfDimensions.add(new RangeOrListOfValues(range));
+                        arrayLenOfDimensions.add(
+                                new RangeOrListOfValues(range, atypeFactory.getMaxValues()));
                     }
                 }
 
@@ -293,7 +299,7 @@ class ValueTreeAnnotator extends TreeAnnotator {
                 newAnno = oldAnno;
             } else if (atypeFactory.isIntRange(oldAnno)
                     && (range = atypeFactory.getRange(oldAnno))
-                            .isWiderThan(ValueAnnotatedTypeFactory.MAX_VALUES)) {
+                            .isWiderThan(atypeFactory.getMaxValues())) {
                 Class<?> newClass = TypesUtils.getClassFromType(newType);
                 if (newClass == String.class) {
                     newAnno = atypeFactory.UNKNOWNVAL;
@@ -0,0 +1,349 @@
+package org.checkerframework.common.value.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A finite set of 64-bit integral values, such as the values of an {@link
+ * org.checkerframework.common.value.qual.IntVal} annotation. It is backed by a sorted array of
+ * primitive longs without duplicates, so its operations do not box their operands or their
+ * results. {@link #union} and {@link #intersect} take time linear in the sizes of the sets, and
+ * {@link #combine} allocates only the array of its result.
+ *
+ * <p>{@code LongValueSet} is immutable.
+ */
+public final class LongValueSet {
+
+    /** The values of this set, in ascending order and without duplicates. */
+    private final long[] values;
+
+    /** The empty set. */
+    public static final LongValueSet EMPTY = new LongValueSet(new long[0]);
+
+    /**
+     * Creates a set from an array that is sorted and has no duplicates. Does not copy the array;
+     * the caller must not modify it afterwards.
+     *
+     * @param values the values of the set, in ascending order and without duplicates
+     */
+    private LongValueSet(long[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates a set of the given values.
+     *
+     * @param values the values of the set; duplicates are allowed and the values may be in any
+     *     order
+     * @return a set of the given values
+     */
+    public static LongValueSet of(long... values) {
+        return fromUnsorted(values.clone(), values.length);
+    }
+
+    /**
+     * Creates a set of the values of the given numbers, as obtained by {@link Number#longValue}.
+     *
+     * @param values the values of the set; duplicates are allowed and the values may be in any
+     *     order
+     * @return a set of the given values
+     */
+    public static LongValueSet create(Collection<? extends Number> values) {
+        long[] array = new long[values.size()];
+        int i = 0;
+        for (Number value : values) {
+            array[i++] = value.longValue();
+        }
+        return fromUnsorted(array, array.length);
+    }
+
+    /**
+     * Creates a set of the first {@code length} elements of {@code array}. Sorts {@code array} in
+     * place, and may return a set that is backed by it.
+     *
+     * @param array the values of the set, in any order; the caller must not use it afterwards
+     * @param length the number of elements of {@code array} to use
+     * @return a set of the first {@code length} elements of {@code array}
+     */
+    private static LongValueSet fromUnsorted(long[] array, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(array, 0, length);
+        int size = 1;
+        for (int i = 1; i < length; i++) {
+            if (array[i] != array[size - 1]) {
+                array[size++] = array[i];
+            }
+        }
+        return new LongValueSet(size == array.length ? array : Arrays.copyOf(array, size));
+    }
+
+    /**
+     * Returns the number of values in this set.
+     *
+     * @return the number of values in this set
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns true if this set contains no values.
+     *
+     * @return true if this set contains no values
+     */
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    /**
+     * Returns the least value in this set. Requires that this set is not empty.
+     *
+     * @return the least value in this set
+     */
+    public long min() {
+        return values[0];
+    }
+
+    /**
+     * Returns the greatest value in this set. Requires that this set is not empty.
+     *
+     * @return the greatest value in this set
+     */
+    public long max() {
+        return values[values.length - 1];
+    }
+
+    /**
+     * Returns true if this set contains the given value.
+     *
+     * @param value a value
+     * @return true if this set contains {@code value}
+     */
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * Returns the smallest range that contains every value of this set.
+     *
+     * @return the smallest range that contains every value of this set, or {@link Range#NOTHING}
+     *     if this set is empty
+     */
+    public Range toRange() {
+        return isEmpty() ? Range.NOTHING : Range.create(min(), max());
+    }
+
+    /**
+     * Returns the values of this set, in ascending order.
+     *
+     * @return a new, modifiable list of the values of this set, in ascending order
+     */
+    public List<Long> toList() {
+        List<Long> result = new ArrayList<>(values.length);
+        for (long value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the union of this set and the given set.
+     *
+     * @param other a set
+     * @return the set of values that are in this set or in {@code other}
+     */
+    public LongValueSet union(LongValueSet other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (this.isEmpty()) {
+            return other;
+        }
+        long[] result = new long[values.length + other.values.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < values.length && j < other.values.length) {
+            long a = values[i];
+            long b = other.values[j];
+            if (a < b) {
+                result[size++] = a;
+                i++;
+            } else if (b < a) {
+                result[size++] = b;
+                j++;
+            } else {
+                result[size++] = a;
+                i++;
+                j++;
+            }
+        }
+        while (i < values.length) {
+            result[size++] = values[i++];
+        }
+        while (j < other.values.length) {
+            result[size++] = other.values[j++];
+        }
+        if (size == values.length) {
+            return this;
+        }
+        if (size == other.values.length) {
+            return other;
+        }
+        return new LongValueSet(size == result.length ? result : Arrays.copyOf(result, size));
+    }
+
+    /**
+     * Returns the intersection of this set and the given set.
+     *
+     * @param other a set
+     * @return the set of values that are in both this set and {@code other}
+     */
+    public LongValueSet intersect(LongValueSet other) {
+        long[] result = new long[Math.min(values.length, other.values.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < values.length && j < other.values.length) {
+            long a = values[i];
+            long b = other.values[j];
+            if (a < b) {
+                i++;
+            } else if (b < a) {
+                j++;
+            } else {
+                result[size++] = a;
+                i++;
+                j++;
+            }
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+        if (size == values.length) {
+            return this;
+        }
+        if (size == other.values.length) {
+            return other;
+        }
+        return new LongValueSet(Arrays.copyOf(result, size));
+    }
+
+    /**
+     * Returns this set without the given value.
+     *
+     * @param value a value
+     * @return the set of values of this set other than {@code value}
+     */
+    public LongValueSet without(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return this;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return new LongValueSet(result);
+    }
+
+    /**
+     * Applies the given operation to every value of this set.
+     *
+     * @param op an operation on a value
+     * @return the set of the results of applying {@code op} to every value of this set
+     */
+    public LongValueSet map(LongUnaryOperator op) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = op.applyAsLong(values[i]);
+        }
+        return fromUnsorted(result, result.length);
+    }
+
+    /**
+     * Applies the given operation to every pair of a value of this set and a value of the given
+     * set.
+     *
+     * @param right the set of right operands
+     * @param op an operation on a left operand and a right operand
+     * @return the set of the results of applying {@code op} to every value of this set and every
+     *     value of {@code right}
+     * @throws ArithmeticException if the product of the sizes of the sets overflows an {@code int}
+     */
+    public LongValueSet combine(LongValueSet right, LongBinaryOperator op) {
+        long[] result = new long[Math.toIntExact((long) values.length * right.values.length)];
+        int size = 0;
+        for (long left : values) {
+            for (long r : right.values) {
+                result[size++] = op.applyAsLong(left, r);
+            }
+        }
+        return fromUnsorted(result, size);
+    }
+
+    /**
+     * Converts every value of this set to {@code int}, as a Java cast does. This models the
+     * promotion of the operands of an {@code int} operation, and the overflow of its result.
+     *
+     * @return the set of the values of this set, cast to {@code int}
+     */
+    public LongValueSet intValues() {
+        if (isEmpty() || (min() >= Integer.MIN_VALUE && max() <= Integer.MAX_VALUE)) {
+            return this;
+        }
+        return map(value -> (int) value);
+    }
+
+    /**
+     * Converts every value of this set to {@code short}, as a Java cast does.
+     *
+     * @return the set of the values of this set, cast to {@code short}
+     */
+    public LongValueSet shortValues() {
+        if (isEmpty() || (min() >= Short.MIN_VALUE && max() <= Short.MAX_VALUE)) {
+            return this;
+        }
+        return map(value -> (short) value);
+    }
+
+    /**
+     * Converts every value of this set to {@code byte}, as a Java cast does.
+     *
+     * @return the set of the values of this set, cast to {@code byte}
+     */
+    public LongValueSet byteValues() {
+        if (isEmpty() || (min() >= Byte.MIN_VALUE && max() <= Byte.MAX_VALUE)) {
+            return this;
+        }
+        return map(value -> (byte) value);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LongValueSet)) {
+            return false;
+        }
+        return Arrays.equals(values, ((LongValueSet) obj).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
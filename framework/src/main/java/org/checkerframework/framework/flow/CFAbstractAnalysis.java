@@ -182,6 +182,18 @@ public abstract class CFAbstractAnalysis<
      */
     public abstract S createCopiedStore(S s);
 
+    /**
+     * Returns an empty store. A store that contains no refined values is sound at every program
+     * point, because every expression then has its declared type.
+     *
+     * @return an empty store
+     */
+    @Override
+    protected S createTopStore() {
+        assert transferFunction != null : "@AssumeAssertion(nullness): invariant";
+        return createEmptyStore(transferFunction.usesSequentialSemantics());
+    }
+
     /**
      * Creates an abstract value from the annotated type mirror. The value contains the set of
      * primary annotations on the type, unless the type is an AnnotatedWildcardType. For an
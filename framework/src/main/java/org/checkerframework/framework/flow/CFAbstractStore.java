@@ -33,7 +33,6 @@ import org.plumelib.util.UniqueId;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -144,12 +143,12 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      */
     protected CFAbstractStore(CFAbstractAnalysis<V, S, ?> analysis, boolean sequentialSemantics) {
         this.analysis = analysis;
-        localVariableValues = new HashMap<>();
+        localVariableValues = new CopyOnWriteHashMap<>();
         thisValue = null;
-        fieldValues = new HashMap<>();
-        methodValues = new HashMap<>();
-        arrayValues = new HashMap<>();
-        classValues = new HashMap<>();
+        fieldValues = new CopyOnWriteHashMap<>();
+        methodValues = new CopyOnWriteHashMap<>();
+        arrayValues = new CopyOnWriteHashMap<>();
+        classValues = new CopyOnWriteHashMap<>();
         this.sequentialSemantics = sequentialSemantics;
         assumeSideEffectFree =
                 analysis.checker.hasOption("assumeSideEffectFree")
@@ -158,18 +157,19 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     }
 
     /**
-     * Copy constructor.
+     * Copy constructor. The maps of the new store share their contents with those of {@code
+     * other} until either store modifies them; see {@link CopyOnWriteHashMap}.
      *
      * @param other a CFAbstractStore to copy into this
      */
     protected CFAbstractStore(CFAbstractStore<V, S> other) {
         this.analysis = other.analysis;
-        localVariableValues = new HashMap<>(other.localVariableValues);
+        localVariableValues = new CopyOnWriteHashMap<>(other.localVariableValues);
         thisValue = other.thisValue;
-        fieldValues = new HashMap<>(other.fieldValues);
-        methodValues = new HashMap<>(other.methodValues);
-        arrayValues = new HashMap<>(other.arrayValues);
-        classValues = new HashMap<>(other.classValues);
+        fieldValues = new CopyOnWriteHashMap<>(other.fieldValues);
+        methodValues = new CopyOnWriteHashMap<>(other.methodValues);
+        arrayValues = new CopyOnWriteHashMap<>(other.arrayValues);
+        classValues = new CopyOnWriteHashMap<>(other.classValues);
         sequentialSemantics = other.sequentialSemantics;
         assumeSideEffectFree = other.assumeSideEffectFree;
         assumePureGetters = other.assumePureGetters;
@@ -362,8 +362,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      */
     private void updateFieldValuesForMethodCall(
             GenericAnnotatedTypeFactory<V, S, ?, ?> atypeFactory) {
-        Map<FieldAccess, V> newFieldValues =
-                new HashMap<>(CollectionsPlume.mapCapacity(fieldValues));
+        Map<FieldAccess, V> newFieldValues = new CopyOnWriteHashMap<>();
         for (Map.Entry<FieldAccess, V> e : fieldValues.entrySet()) {
             FieldAccess fieldAccess = e.getKey();
             V value = e.getValue();
@@ -1258,40 +1257,33 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
      * equals predicate.
      */
     protected boolean supersetOf(CFAbstractStore<V, S> other) {
-        for (Map.Entry<LocalVariable, V> e : other.localVariableValues.entrySet()) {
-            LocalVariable key = e.getKey();
-            V value = localVariableValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
-        }
         if (!Objects.equals(thisValue, other.thisValue)) {
             return false;
         }
-        for (Map.Entry<FieldAccess, V> e : other.fieldValues.entrySet()) {
-            FieldAccess key = e.getKey();
-            V value = fieldValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Map.Entry<ArrayAccess, V> e : other.arrayValues.entrySet()) {
-            ArrayAccess key = e.getKey();
-            V value = arrayValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
-        }
-        for (Map.Entry<MethodCall, V> e : other.methodValues.entrySet()) {
-            MethodCall key = e.getKey();
-            V value = methodValues.get(key);
-            if (value == null || !value.equals(e.getValue())) {
-                return false;
-            }
+        return mapSupersetOf(localVariableValues, other.localVariableValues)
+                && mapSupersetOf(fieldValues, other.fieldValues)
+                && mapSupersetOf(arrayValues, other.arrayValues)
+                && mapSupersetOf(methodValues, other.methodValues)
+                && mapSupersetOf(classValues, other.classValues);
+    }
+
+    /**
+     * Returns true iff {@code map} contains a superset of the entries of {@code other}, by Java
+     * equality of keys and values. Takes constant time if the maps share their contents.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @param map a map
+     * @param other another map
+     * @return true iff {@code map} contains all entries of {@code other}
+     */
+    private static <K, V> boolean mapSupersetOf(Map<K, V> map, Map<K, V> other) {
+        if (map instanceof CopyOnWriteHashMap
+                && ((CopyOnWriteHashMap<K, V>) map).sharesContentsWith(other)) {
+            return true;
         }
-        for (Map.Entry<ClassName, V> e : other.classValues.entrySet()) {
-            ClassName key = e.getKey();
-            V value = classValues.get(key);
+        for (Map.Entry<K, V> e : other.entrySet()) {
+            V value = map.get(e.getKey());
             if (value == null || !value.equals(e.getValue())) {
                 return false;
             }
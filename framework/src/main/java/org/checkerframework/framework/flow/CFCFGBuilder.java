@@ -62,6 +62,8 @@ public class CFCFGBuilder extends CFGBuilder {
             if (asGATF.hasOrIsSubchecker) {
                 ControlFlowGraph sharedCFG = asGATF.getSharedCFGForTree(underlyingAST.getCode());
                 if (sharedCFG != null) {
+                    // The ultimate parent checker is the last checker to analyze the code.
+                    asGATF.removeSharedCFGForTree(underlyingAST.getCode());
                     return sharedCFG;
                 }
             }
@@ -0,0 +1,275 @@
+package org.checkerframework.framework.flow;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.qual.Pure;
+import org.checkerframework.dataflow.qual.SideEffectFree;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hash map whose copies share their contents until one of them is modified. Copying a map takes
+ * constant time; the first modification of a map whose contents are shared copies the contents.
+ *
+ * <p>Stores are copied on every block transition of a dataflow analysis, but most copies are
+ * modified in few or none of their maps. {@link CFAbstractStore} therefore uses this class for the
+ * maps that hold the abstract values of its memory locations.
+ *
+ * <p>This class is not thread-safe, nor are copies that share contents with each other. A map must
+ * not be copied while an iterator over it is used to modify it.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class CopyOnWriteHashMap<K, V> extends AbstractMap<K, V> {
+
+    /** The contents of one or more maps, and how many maps share them. */
+    private static final class Contents<K, V> {
+        /** The mappings. */
+        final HashMap<K, V> map;
+
+        /** The number of {@link CopyOnWriteHashMap}s that use {@link #map}. */
+        int owners = 1;
+
+        /**
+         * Creates new Contents.
+         *
+         * @param map the mappings
+         */
+        Contents(HashMap<K, V> map) {
+            this.map = map;
+        }
+    }
+
+    /** The contents of this map; shared with other maps if {@code contents.owners > 1}. */
+    private Contents<K, V> contents;
+
+    /** The entry set view of this map. */
+    private @Nullable Set<Map.Entry<K, V>> entrySet;
+
+    /** Creates an empty map. */
+    public CopyOnWriteHashMap() {
+        this.contents = new Contents<>(new HashMap<>());
+    }
+
+    /**
+     * Creates a map with the same mappings as {@code other}. If {@code other} is a
+     * CopyOnWriteHashMap, the new map shares its contents, and the copy takes constant time.
+     *
+     * @param other the map whose mappings to copy
+     */
+    @SuppressWarnings("unchecked") // the contents of a map with the same key and value types
+    public CopyOnWriteHashMap(Map<? extends K, ? extends V> other) {
+        if (other instanceof CopyOnWriteHashMap) {
+            this.contents = ((CopyOnWriteHashMap<K, V>) other).contents;
+            this.contents.owners++;
+        } else {
+            this.contents = new Contents<>(new HashMap<>(other));
+        }
+    }
+
+    /**
+     * Returns true if this map and {@code other} share their contents, and therefore are equal.
+     *
+     * @param other another map
+     * @return true if this map and {@code other} share their contents
+     */
+    @Pure
+    public boolean sharesContentsWith(Map<?, ?> other) {
+        return other instanceof CopyOnWriteHashMap
+                && ((CopyOnWriteHashMap<?, ?>) other).contents == contents;
+    }
+
+    /**
+     * Returns the mappings of this map for modification, first copying them if they are shared
+     * with another map.
+     *
+     * @return the mappings of this map, which no other map uses
+     */
+    private HashMap<K, V> mutableMap() {
+        if (contents.owners > 1) {
+            contents.owners--;
+            contents = new Contents<>(new HashMap<>(contents.map));
+        }
+        return contents.map;
+    }
+
+    @Pure
+    @Override
+    public int size() {
+        return contents.map.size();
+    }
+
+    @Pure
+    @Override
+    public boolean isEmpty() {
+        return contents.map.isEmpty();
+    }
+
+    @Pure
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return contents.map.containsKey(key);
+    }
+
+    @Pure
+    @Override
+    public boolean containsValue(@Nullable Object value) {
+        return contents.map.containsValue(value);
+    }
+
+    @Pure
+    @Override
+    public @Nullable V get(@Nullable Object key) {
+        return contents.map.get(key);
+    }
+
+    @Override
+    public @Nullable V put(K key, V value) {
+        return mutableMap().put(key, value);
+    }
+
+    @Override
+    public @Nullable V remove(@Nullable Object key) {
+        if (!contents.map.containsKey(key)) {
+            return null;
+        }
+        return mutableMap().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (!m.isEmpty()) {
+            mutableMap().putAll(m);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (contents.owners > 1) {
+            contents.owners--;
+            contents = new Contents<>(new HashMap<>());
+        } else {
+            contents.map.clear();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Iterating over the returned set does not copy the contents of this map. Removing an entry
+     * through the iterator or calling {@code setValue} on an entry copies them, if they are shared.
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    @Pure
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (o instanceof Map && sharesContentsWith((Map<?, ?>) o)) {
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Pure
+    @Override
+    public int hashCode() {
+        return contents.map.hashCode();
+    }
+
+    @SideEffectFree
+    @Override
+    public String toString() {
+        return contents.map.toString();
+    }
+
+    /** The entry set view of a {@link CopyOnWriteHashMap}. */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return contents.map.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (contents.owners == 1) {
+                // Nothing to copy on modification: use the iterator of the mappings themselves.
+                return contents.map.entrySet().iterator();
+            }
+            return new SharedEntryIterator(contents.map.entrySet().iterator());
+        }
+
+        @Override
+        public void clear() {
+            CopyOnWriteHashMap.this.clear();
+        }
+    }
+
+    /**
+     * An iterator over mappings that were shared when iteration started. The iterator keeps
+     * iterating over those mappings, and applies modifications to the mappings of this map, which
+     * are copied first.
+     */
+    private final class SharedEntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        /** The iterator over the shared mappings. */
+        private final Iterator<Map.Entry<K, V>> sharedIterator;
+
+        /** The key of the entry last returned by {@link #next}, or null if it was removed. */
+        private @Nullable K lastKey;
+
+        /** True if {@link #lastKey} is valid. */
+        private boolean hasLast = false;
+
+        /**
+         * Creates a new SharedEntryIterator.
+         *
+         * @param sharedIterator the iterator over the shared mappings
+         */
+        SharedEntryIterator(Iterator<Map.Entry<K, V>> sharedIterator) {
+            this.sharedIterator = sharedIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return sharedIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            Map.Entry<K, V> sharedEntry = sharedIterator.next();
+            K key = sharedEntry.getKey();
+            lastKey = key;
+            hasLast = true;
+            return new AbstractMap.SimpleEntry<K, V>(sharedEntry) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public V setValue(V value) {
+                    super.setValue(value);
+                    return mutableMap().put(key, value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (!hasLast) {
+                throw new IllegalStateException();
+            }
+            hasLast = false;
+            mutableMap().remove(lastKey);
+        }
+    }
+}
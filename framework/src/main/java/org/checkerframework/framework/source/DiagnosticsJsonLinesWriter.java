@@ -0,0 +1,286 @@
+package org.checkerframework.framework.source;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.UserError;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+
+/**
+ * Writes type-checking diagnostics to a file in JSON Lines format: one JSON object per line, per
+ * diagnostic. Each diagnostic is written as soon as it is reported, so the memory used does not
+ * grow with the number of diagnostics. This output is easier for tools to consume than the
+ * compiler's textual output. It is written in addition to that output, unless the writer is the
+ * only output; see {@link #isOnlyOutput()}.
+ *
+ * <p>Each object has the following fields:
+ *
+ * <ul>
+ *   <li>{@code "checker"}: the simple name of the checker class that issued the diagnostic
+ *   <li>{@code "kind"}: the {@link Diagnostic.Kind}, such as {@code "ERROR"}
+ *   <li>{@code "key"}: the message key, such as {@code "assignment"}
+ *   <li>{@code "message"}: the message text, as the compiler prints it
+ *   <li>{@code "file"}: the source file, or null if the diagnostic has no source position
+ *   <li>{@code "line"} and {@code "column"}: the 1-based position, or null if the diagnostic has no
+ *       source position
+ * </ul>
+ *
+ * If a limit per file is set, at most that many diagnostics are written for each source file,
+ * followed by an object whose {@code "kind"} is {@code "NOTE"} and whose {@code "key"} is {@code
+ * "diagnostics.limit"}.
+ *
+ * <p>One writer is shared by a checker and all of its subcheckers; see {@link
+ * SourceChecker#getDiagnosticsJsonLinesWriter()}.
+ */
+final class DiagnosticsJsonLinesWriter {
+
+    /** The file that is written. */
+    private final Path path;
+
+    /** The output. */
+    private final BufferedWriter out;
+
+    /** The maximum number of diagnostics to write for a source file. */
+    private final int perFileLimit;
+
+    /** True if diagnostics are written only to this file, not to the compiler's output. */
+    private final boolean onlyOutput;
+
+    /** The number of diagnostics reported so far for each source file, including skipped ones. */
+    private final Map<String, Integer> countsPerFile = new HashMap<>();
+
+    /** The number of errors reported so far, including skipped ones. */
+    private long errorCount = 0;
+
+    /** The number of warnings reported so far, including skipped ones. */
+    private long warningCount = 0;
+
+    /** True if {@link #close} has been called. */
+    private boolean closed = false;
+
+    /**
+     * Creates a DiagnosticsJsonLinesWriter that writes to {@code filename}, overwriting it.
+     *
+     * @param filename the file to write
+     * @param perFileLimit the maximum number of diagnostics to write for a source file
+     * @param onlyOutput true if diagnostics are written only to this file, not to the compiler's
+     *     output
+     */
+    DiagnosticsJsonLinesWriter(String filename, int perFileLimit, boolean onlyOutput) {
+        this.path = Paths.get(filename);
+        this.perFileLimit = perFileLimit;
+        this.onlyOutput = onlyOutput;
+        try {
+            this.out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UserError("Could not open diagnostics file %s: %s", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a diagnostic, unless the limit for its source file has been reached.
+     *
+     * @param checker the simple name of the checker that issued the diagnostic
+     * @param kind the kind of the diagnostic
+     * @param messageKey the message key
+     * @param message the message text
+     * @param file the source file, or null if the diagnostic has no source position
+     * @param line the 1-based line number; ignored if {@code file} is null
+     * @param column the 1-based column number; ignored if {@code file} is null
+     */
+    void write(
+            String checker,
+            Diagnostic.Kind kind,
+            String messageKey,
+            String message,
+            @Nullable String file,
+            long line,
+            long column) {
+        if (kind == Diagnostic.Kind.ERROR) {
+            errorCount++;
+        } else if (kind == Diagnostic.Kind.WARNING || kind == Diagnostic.Kind.MANDATORY_WARNING) {
+            warningCount++;
+        }
+        if (file != null) {
+            int count = countsPerFile.merge(file, 1, Integer::sum);
+            if (count > perFileLimit) {
+                if (count == perFileLimit + 1) {
+                    writeRecord(
+                            checker,
+                            Diagnostic.Kind.NOTE.name(),
+                            "diagnostics.limit",
+                            "Reached the limit of "
+                                    + perFileLimit
+                                    + " diagnostics for this file; further diagnostics are"
+                                    + " omitted",
+                            file,
+                            line,
+                            column);
+                }
+                return;
+            }
+        }
+        writeRecord(checker, kind.name(), messageKey, message, file, line, column);
+    }
+
+    /**
+     * Returns true if diagnostics are written only to this file, not to the compiler's output. The
+     * {@code -AdiagnosticsJsonLinesOnly} command-line option selects this mode.
+     *
+     * @return true if diagnostics are written only to this file
+     */
+    boolean isOnlyOutput() {
+        return onlyOutput;
+    }
+
+    /**
+     * Returns the file that is written.
+     *
+     * @return the file that is written
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of errors reported so far, including those omitted because of the limit
+     * per file.
+     *
+     * @return the number of errors reported so far
+     */
+    long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the number of warnings reported so far, including those omitted because of the limit
+     * per file.
+     *
+     * @return the number of warnings reported so far
+     */
+    long getWarningCount() {
+        return warningCount;
+    }
+
+    /**
+     * Returns true if {@link #close} has been called.
+     *
+     * @return true if this writer has been closed
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Writes one JSON object and a line terminator.
+     *
+     * @param checker the value of the "checker" field
+     * @param kind the value of the "kind" field
+     * @param messageKey the value of the "key" field
+     * @param message the value of the "message" field
+     * @param file the value of the "file" field
+     * @param line the value of the "line" field; ignored if {@code file} is null
+     * @param column the value of the "column" field; ignored if {@code file} is null
+     */
+    private void writeRecord(
+            String checker,
+            String kind,
+            String messageKey,
+            String message,
+            @Nullable String file,
+            long line,
+            long column) {
+        StringBuilder sb = new StringBuilder(128 + message.length());
+        sb.append("{\"checker\":");
+        appendJsonString(sb, checker);
+        sb.append(",\"kind\":");
+        appendJsonString(sb, kind);
+        sb.append(",\"key\":");
+        appendJsonString(sb, messageKey);
+        sb.append(",\"message\":");
+        appendJsonString(sb, message);
+        sb.append(",\"file\":");
+        if (file == null) {
+            sb.append("null,\"line\":null,\"column\":null}");
+        } else {
+            appendJsonString(sb, file);
+            sb.append(",\"line\":").append(line).append(",\"column\":").append(column).append('}');
+        }
+        sb.append('\n');
+        try {
+            out.write(sb.toString());
+        } catch (IOException e) {
+            throw new UserError("Could not write diagnostics file %s: %s", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Appends {@code s} to {@code sb} as a JSON string literal.
+     *
+     * @param sb the string builder to append to
+     * @param s the string to append
+     */
+    private static void appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /** Writes any buffered diagnostics to the file. Has no effect if the file has been closed. */
+    void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UserError("Could not write diagnostics file %s: %s", path, e.getMessage());
+        }
+    }
+
+    /** Writes any buffered diagnostics to the file and closes it. Has no effect if already closed. */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UserError("Could not write diagnostics file %s: %s", path, e.getMessage());
+        }
+    }
+}
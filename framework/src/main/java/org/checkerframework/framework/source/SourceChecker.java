@@ -7,7 +7,10 @@ import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
 import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Source;
@@ -28,9 +31,13 @@ import org.checkerframework.checker.nullness.qual.PolyNull;
 import org.checkerframework.checker.signature.qual.CanonicalName;
 import org.checkerframework.checker.signature.qual.FullyQualifiedName;
 import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.dataflow.expression.JavaExpression;
 import org.checkerframework.framework.qual.AnnotatedFor;
+import org.checkerframework.framework.stub.AnnotationFileParser;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.DefaultAnnotatedTypeFormatter;
 import org.checkerframework.framework.util.CheckerMain;
+import org.checkerframework.framework.util.JavaExpressionParseUtil;
 import org.checkerframework.framework.util.OptionConfiguration;
 import org.checkerframework.framework.util.TreePathCacher;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
@@ -45,6 +52,7 @@ import org.checkerframework.javacutil.TypeSystemError;
 import org.checkerframework.javacutil.UserError;
 import org.plumelib.util.ArraySet;
 import org.plumelib.util.CollectionsPlume;
+import org.plumelib.util.IPair;
 import org.plumelib.util.SystemPlume;
 import org.plumelib.util.UtilPlume;
 
@@ -52,6 +60,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.ref.WeakReference;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryPoolMXBean;
 import java.lang.reflect.Field;
@@ -256,6 +265,14 @@ import javax.tools.Diagnostic;
     // org.checkerframework.framework.type.ElementAnnotationApplier.apply
     "ignoreInvalidAnnotationLocations",
 
+    // The number of blocks that the dataflow analysis of a method may analyze, and the time in
+    // milliseconds that it may take, before it discards its refined types, finishes in time
+    // proportional to the size of the method, and warns "dataflow.budget.exceeded".
+    // Whether a method exceeds the time budget depends on the speed and load of the machine.
+    // org.checkerframework.dataflow.analysis.ForwardAnalysisImpl.setBudget
+    "dataflowBudget",
+    "dataflowTimeBudget",
+
     ///
     /// Compatibility options
     ///
@@ -356,6 +373,21 @@ import javax.tools.Diagnostic;
     // org.checkerframework.framework.source.SourceChecker.message(Kind, Object, String, Object...)
     "detailedmsgtext",
 
+    // Also write each diagnostic, as it is reported, to the given file in JSON Lines format
+    // -AdiagnosticsJsonLines=diagnostics.jsonl
+    // org.checkerframework.framework.source.DiagnosticsJsonLinesWriter
+    "diagnosticsJsonLines",
+
+    // Write at most the given number of diagnostics per source file to the -AdiagnosticsJsonLines
+    // file
+    // org.checkerframework.framework.source.DiagnosticsJsonLinesWriter
+    "diagnosticsPerFileLimit",
+
+    // Write diagnostics only to the -AdiagnosticsJsonLines file; the compiler reports just the
+    // number of errors and warnings written
+    // org.checkerframework.framework.source.SourceChecker.report
+    "diagnosticsJsonLinesOnly",
+
     /// Stub and JDK libraries
 
     // Ignore the standard jdk.astub file; primarily for testing or debugging.
@@ -429,6 +461,11 @@ import javax.tools.Diagnostic;
     // Set the cache size for caches in AnnotatedTypeFactory
     "atfCacheSize",
 
+    // Set the eviction policy of the caches in AnnotatedTypeFactory: "lru" (the default) or
+    // "tinylfu"
+    // org.checkerframework.framework.type.AnnotatedTypeFactory.createCache(int)
+    "atfCacheKind",
+
     // Sets AnnotatedTypeFactory shouldCache to false
     "atfDoNotCache",
 
@@ -444,6 +481,17 @@ import javax.tools.Diagnostic;
     // org.checkerframework.framework.source.SourceChecker.shutdownHook()
     "resourceStats",
 
+    // Output the time, allocated memory, and number of invocations of the phases of
+    // type-checking, for each class and in total
+    // org.checkerframework.framework.util.PhaseStatistics
+    "phaseStats",
+
+    // Output the methods and classes whose dataflow analysis took the longest, at the end of
+    // compilation. The optional value is the number of methods and classes to output.
+    // -AhotMethods=50
+    // org.checkerframework.framework.util.HotMethodStatistics
+    "hotMethods",
+
     // Run checks that test ajava files.
     //
     // Whenever processing a source file, parse it with JavaParser and check that the AST can be
@@ -474,6 +522,12 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     /** True if the Checker Framework version number has already been printed. */
     private static boolean printedVersion = false;
 
+    /**
+     * The javac context of the compilation for which {@link #resetStaticState} last reset the
+     * static state. A weak reference, so that it does not keep a finished compilation alive.
+     */
+    private static WeakReference<@Nullable Context> staticStateContext = new WeakReference<>(null);
+
     /**
      * Maps error keys to localized/custom error messages. Do not use directly; call {@link
      * #fullMessageOf} or {@link #processErrorMessageArg}. Is set in {@link #initChecker}.
@@ -605,6 +659,17 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
      */
     protected TreePathCacher treePathCacher = null;
 
+    /** The maximum number of entries in {@link #javaExpressionCache}. */
+    private static final int JAVA_EXPRESSION_CACHE_SIZE = 300;
+
+    /**
+     * Maps a Java expression string and the declaration at which it is written to the result of
+     * parsing it. Parsing resolves names in the current compilation unit, so {@link #setRoot}
+     * clears this cache. Initialized in {@link #getJavaExpressionCache}, and remains null if the
+     * -AatfDoNotCache command-line option is supplied.
+     */
+    private @MonotonicNonNull Map<IPair<String, Element>, JavaExpression> javaExpressionCache;
+
     /** Default constructor. */
     protected SourceChecker() {}
 
@@ -714,6 +779,102 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
         return this.parentChecker;
     }
 
+    /**
+     * The writer for the {@code -AdiagnosticsJsonLines} option, or null if it has not been created.
+     * Only the checker without a parent checker creates one.
+     */
+    private @MonotonicNonNull DiagnosticsJsonLinesWriter diagnosticsJsonLinesWriter;
+
+    /**
+     * Returns the writer for the {@code -AdiagnosticsJsonLines} option, which is shared with the
+     * parent checker, if any. Creates it if necessary; {@link #typeProcessingStart} creates it
+     * before any diagnostic is reported.
+     *
+     * @return the writer for the {@code -AdiagnosticsJsonLines} option, or null if the option was
+     *     not passed
+     */
+    /*package-private*/ @Nullable DiagnosticsJsonLinesWriter getDiagnosticsJsonLinesWriter() {
+        if (parentChecker != null) {
+            return parentChecker.getDiagnosticsJsonLinesWriter();
+        }
+        if (diagnosticsJsonLinesWriter == null) {
+            String filename = getOption("diagnosticsJsonLines");
+            boolean onlyOutput = hasOption("diagnosticsJsonLinesOnly");
+            if (filename == null) {
+                if (onlyOutput) {
+                    throw new UserError(
+                            "-AdiagnosticsJsonLinesOnly requires -AdiagnosticsJsonLines=FILE");
+                }
+                return null;
+            }
+            int perFileLimit = Integer.MAX_VALUE;
+            String limit = getOption("diagnosticsPerFileLimit");
+            if (limit != null) {
+                try {
+                    perFileLimit = Integer.parseInt(limit);
+                } catch (NumberFormatException e) {
+                    throw new UserError("diagnosticsPerFileLimit was not an integer: " + limit);
+                }
+                if (perFileLimit < 1) {
+                    throw new UserError("diagnosticsPerFileLimit must be positive: " + limit);
+                }
+            }
+            diagnosticsJsonLinesWriter =
+                    new DiagnosticsJsonLinesWriter(filename, perFileLimit, onlyOutput);
+            // javac may stop without calling typeProcessingOver, for example after an error.
+            // Close the file when the compilation ends, so that a long-lived JVM (see -daemon)
+            // does not leak its handle.
+            JavacTask.instance(processingEnv)
+                    .addTaskListener(
+                            new TaskListener() {
+                                @Override
+                                public void started(TaskEvent e) {}
+
+                                @Override
+                                public void finished(TaskEvent e) {
+                                    // TaskEvent.Kind.COMPILATION does not exist in Java 8.
+                                    if (e.getKind().name().equals("COMPILATION")) {
+                                        closeDiagnosticsJsonLinesWriter();
+                                    }
+                                }
+                            });
+        }
+        return diagnosticsJsonLinesWriter;
+    }
+
+    /**
+     * Closes the writer for the {@code -AdiagnosticsJsonLines} option, if this checker owns it and
+     * it is open. If the {@code -AdiagnosticsJsonLinesOnly} option was passed, first reports how
+     * many errors and warnings were written to the file, so that the compilation fails (or
+     * {@code -Werror} applies) just as it would without the option.
+     */
+    private void closeDiagnosticsJsonLinesWriter() {
+        DiagnosticsJsonLinesWriter writer = diagnosticsJsonLinesWriter;
+        if (parentChecker != null || writer == null || writer.isClosed()) {
+            return;
+        }
+        try {
+            if (writer.isOnlyOutput()) {
+                if (writer.getErrorCount() > 0) {
+                    message(
+                            Diagnostic.Kind.ERROR,
+                            "%d errors and %d warnings were written to %s",
+                            writer.getErrorCount(),
+                            writer.getWarningCount(),
+                            writer.getPath());
+                } else if (writer.getWarningCount() > 0) {
+                    message(
+                            Diagnostic.Kind.WARNING,
+                            "%d warnings were written to %s",
+                            writer.getWarningCount(),
+                            writer.getPath());
+                }
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
     /**
      * Invoked when the current compilation unit root changes.
      *
@@ -723,6 +884,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     protected void setRoot(CompilationUnitTree newRoot) {
         this.currentRoot = newRoot;
         visitor.setRoot(currentRoot);
+        if (javaExpressionCache != null) {
+            javaExpressionCache.clear();
+        }
 
         if (parentChecker == null) {
             // Only clear the path cache if this is the main checker.
@@ -963,7 +1127,13 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     public void typeProcessingStart() {
         try {
             super.typeProcessingStart();
+            resetStaticState();
             initChecker();
+            if (parentChecker == null) {
+                // Create the -AdiagnosticsJsonLines file now, so that a compilation without
+                // diagnostics overwrites the file of an earlier compilation.
+                getDiagnosticsJsonLinesWriter();
+            }
             if (this.messager == null) {
                 messager = processingEnv.getMessager();
                 messager.printMessage(
@@ -999,6 +1169,31 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
         }
     }
 
+    /**
+     * Resets the static state of the Checker Framework that must not carry over from one
+     * compilation to the next, when a JVM runs several compilations, as with the {@code -daemon}
+     * command-line argument of {@link CheckerMain}. Each compilation then issues the same messages
+     * as it would in a new JVM. Does nothing if another checker already reset the state for the
+     * current compilation.
+     */
+    private void resetStaticState() {
+        Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
+        if (staticStateContext.get() == context) {
+            return;
+        }
+        staticStateContext = new WeakReference<>(context);
+        printedVersion = false;
+        gitPropertiesPrinted = false;
+        DefaultAnnotatedTypeFormatter.resetCaptureConversionIds();
+        AnnotationFileParser.resetWarnings();
+    }
+
+    @Override
+    public void typeProcessingOver() {
+        closeDiagnosticsJsonLinesWriter();
+        super.typeProcessingOver();
+    }
+
     /**
      * Initialize the checker.
      *
@@ -1147,6 +1342,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             // Also add possibly deferred diagnostics, which will get published back in
             // AbstractTypeProcessor.
             this.errsOnLastExit = log.nerrors;
+            if (parentChecker == null && diagnosticsJsonLinesWriter != null) {
+                diagnosticsJsonLinesWriter.flush();
+            }
         }
     }
 
@@ -1260,6 +1458,16 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             kind = Diagnostic.Kind.MANDATORY_WARNING;
         }
 
+        DiagnosticsJsonLinesWriter jsonLinesWriter = getDiagnosticsJsonLinesWriter();
+        if (jsonLinesWriter != null) {
+            writeJsonLinesDiagnostic(jsonLinesWriter, kind, messageKey, messageText, preciseSource);
+            if (jsonLinesWriter.isOnlyOutput()) {
+                // Don't accumulate the diagnostic in the compiler's log or in the message store
+                // of a compound checker.
+                return;
+            }
+        }
+
         if (preciseSource instanceof Element) {
             messager.printMessage(kind, messageText, (Element) preciseSource);
         } else if (preciseSource instanceof Tree) {
@@ -1269,6 +1477,56 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
         }
     }
 
+    /**
+     * Writes a diagnostic to the {@code -AdiagnosticsJsonLines} file, at the position javac uses to
+     * report it.
+     *
+     * @param writer the writer for the {@code -AdiagnosticsJsonLines} file
+     * @param kind the kind of the diagnostic
+     * @param messageKey the message key
+     * @param messageText the message text
+     * @param source the source position information; an Element or a Tree
+     */
+    private void writeJsonLinesDiagnostic(
+            DiagnosticsJsonLinesWriter writer,
+            Diagnostic.Kind kind,
+            String messageKey,
+            String messageText,
+            Object source) {
+        CompilationUnitTree root = null;
+        Tree tree = null;
+        if (source instanceof Tree) {
+            root = currentRoot;
+            tree = (Tree) source;
+        } else if (source instanceof Element) {
+            TreePath path = Trees.instance(processingEnv).getPath((Element) source);
+            if (path != null) {
+                root = path.getCompilationUnit();
+                tree = path.getLeaf();
+            }
+        }
+
+        String file = null;
+        long line = -1;
+        long column = -1;
+        if (root != null && tree != null) {
+            int pos = ((JCTree) tree).getPreferredPosition();
+            if (pos != Position.NOPOS) {
+                file = root.getSourceFile().getName();
+                line = root.getLineMap().getLineNumber(pos);
+                column = root.getLineMap().getColumnNumber(pos);
+            }
+        }
+        writer.write(
+                this.getClass().getSimpleName(),
+                kind,
+                messageKey,
+                messageText,
+                file,
+                line,
+                column);
+    }
+
     /**
      * This method improves the source position information for message reporting. If the given
      * {@code source} does not have a precise location, it will try to return an object with a
@@ -2917,6 +3175,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
             System.out.println("  Pool type: " + memoryPool.getType());
             System.out.println("  Peak usage: " + memoryPool.getPeakUsage());
         }
+        System.out.println(JavaExpressionParseUtil.getParseCacheStatistics());
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -3104,4 +3363,22 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     public TreePath getPathToCompilationUnit() {
         return getTreePathCacher().getPath(currentRoot, currentRoot);
     }
+
+    /**
+     * Returns the cache of Java expression strings parsed at declarations in the current
+     * compilation unit, keyed by the string and the declaration. It is used by {@link
+     * org.checkerframework.framework.util.StringToJavaExpression#atTypeDecl}, {@link
+     * org.checkerframework.framework.util.StringToJavaExpression#atFieldDecl}, and {@link
+     * org.checkerframework.framework.util.StringToJavaExpression#atMethodDecl}, whose results
+     * depend only on the string, the declaration, and the current compilation unit.
+     *
+     * @return the cache of parsed Java expressions, or null if the -AatfDoNotCache command-line
+     *     option is supplied
+     */
+    public @Nullable Map<IPair<String, Element>, JavaExpression> getJavaExpressionCache() {
+        if (javaExpressionCache == null && !hasOption("atfDoNotCache")) {
+            javaExpressionCache = CollectionsPlume.createLruCache(JAVA_EXPRESSION_CACHE_SIZE);
+        }
+        return javaExpressionCache;
+    }
 }
@@ -13,6 +13,7 @@ import org.checkerframework.framework.stub.AnnotationFileUtil.AnnotationFileType
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
+import org.checkerframework.framework.util.PhaseStatistics;
 import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.ElementUtils;
@@ -170,56 +171,62 @@ public class AnnotationFileElementTypes {
      * annotation is requested from a class in that file.
      */
     // TODO: it's unclear for what Java versions a jdkN.astub is parsed.
+    @SuppressWarnings("try") // `scope` is only closed
     public void parseStubFiles() {
         assert parsingCount == 0;
         ++parsingCount;
         BaseTypeChecker checker = atypeFactory.getChecker();
-        if (stubDebug) {
-            System.out.printf(
-                    "entered parseStubFiles() for %s, ignorejdkastub=%s%n",
-                    atypeFactory.getClass().getSimpleName(), ignorejdkastub);
-        }
-        if (!ignorejdkastub) {
-            // 1. Annotated JDK
-            // This preps but does not parse the JDK files (except package-info.java files).
-            // The JDK source code files will be parsed later, on demand.
-            prepJdkStubs();
-
-            // 2. jdk.astub
-            // Only look in .jar files, and parse it right away.
-            String[] jdkVersions = {"", annotatedJdkVersion};
-            for (String jdkVersion : jdkVersions) {
-                String jdkVersionStub = "jdk" + jdkVersion + ".astub";
-                parseOneStubFile(this.getClass(), jdkVersionStub);
-                parseOneStubFile(checker.getClass(), jdkVersionStub);
+        try (PhaseStatistics.Scope scope =
+                PhaseStatistics.time(
+                        checker.getPhaseStatistics(), PhaseStatistics.Phase.PARSE_STUB_FILES)) {
+            if (stubDebug) {
+                System.out.printf(
+                        "entered parseStubFiles() for %s, ignorejdkastub=%s%n",
+                        atypeFactory.getClass().getSimpleName(), ignorejdkastub);
             }
-            // This needs to be special-cased for every jdkX.astub for which files exist. :-(
-            // TODO: not clear what this is supposed to mean - if we are on Java 8, why parse Java
-            // 11 stub files?
-            // It would make more sense to parse this if we're e.g. on Java 12.
-            if (annotatedJdkVersion.equals("8")) {
-                String jdk11Stub = "jdk11.astub";
-                parseOneStubFile(this.getClass(), jdk11Stub);
-                parseOneStubFile(checker.getClass(), jdk11Stub);
+            if (!ignorejdkastub) {
+                // 1. Annotated JDK
+                // This preps but does not parse the JDK files (except package-info.java files).
+                // The JDK source code files will be parsed later, on demand.
+                prepJdkStubs();
+
+                // 2. jdk.astub
+                // Only look in .jar files, and parse it right away.
+                String[] jdkVersions = {"", annotatedJdkVersion};
+                for (String jdkVersion : jdkVersions) {
+                    String jdkVersionStub = "jdk" + jdkVersion + ".astub";
+                    parseOneStubFile(this.getClass(), jdkVersionStub);
+                    parseOneStubFile(checker.getClass(), jdkVersionStub);
+                }
+                // This needs to be special-cased for every jdkX.astub for which files exist. :-(
+                // TODO: not clear what this is supposed to mean - if we are on Java 8, why parse
+                // Java 11 stub files?
+                // It would make more sense to parse this if we're e.g. on Java 12.
+                if (annotatedJdkVersion.equals("8")) {
+                    String jdk11Stub = "jdk11.astub";
+                    parseOneStubFile(this.getClass(), jdk11Stub);
+                    parseOneStubFile(checker.getClass(), jdk11Stub);
+                }
             }
-        }
 
-        // 3. Stub files listed in @StubFiles annotation on the checker
-        StubFiles stubFilesAnnotation = checker.getClass().getAnnotation(StubFiles.class);
-        if (stubFilesAnnotation != null) {
-            parseAnnotationFiles(
-                    Arrays.asList(stubFilesAnnotation.value()), AnnotationFileType.BUILTIN_STUB);
-        }
+            // 3. Stub files listed in @StubFiles annotation on the checker
+            StubFiles stubFilesAnnotation = checker.getClass().getAnnotation(StubFiles.class);
+            if (stubFilesAnnotation != null) {
+                parseAnnotationFiles(
+                        Arrays.asList(stubFilesAnnotation.value()),
+                        AnnotationFileType.BUILTIN_STUB);
+            }
 
-        // 4. Stub files returned by the `getExtraStubFiles()` method
-        parseAnnotationFiles(checker.getExtraStubFiles(), AnnotationFileType.BUILTIN_STUB);
+            // 4. Stub files returned by the `getExtraStubFiles()` method
+            parseAnnotationFiles(checker.getExtraStubFiles(), AnnotationFileType.BUILTIN_STUB);
 
-        // 5. Stub files provided via -Astubs command-line option
-        String stubsOption = checker.getOption("stubs");
-        if (stubsOption != null) {
-            parseAnnotationFiles(
-                    SystemUtil.PATH_SEPARATOR_SPLITTER.splitToList(stubsOption),
-                    AnnotationFileType.COMMAND_LINE_STUB);
+            // 5. Stub files provided via -Astubs command-line option
+            String stubsOption = checker.getOption("stubs");
+            if (stubsOption != null) {
+                parseAnnotationFiles(
+                        SystemUtil.PATH_SEPARATOR_SPLITTER.splitToList(stubsOption),
+                        AnnotationFileType.COMMAND_LINE_STUB);
+            }
         }
 
         --parsingCount;
@@ -800,9 +807,14 @@ public class AnnotationFileElementTypes {
      *
      * @param path path to file to parse
      */
+    @SuppressWarnings("try") // `scope` is only closed
     private void parseJdkStubFile(Path path) {
         ++parsingCount;
-        try (FileInputStream jdkStub = new FileInputStream(path.toFile())) {
+        try (PhaseStatistics.Scope scope =
+                        PhaseStatistics.time(
+                                atypeFactory.getChecker().getPhaseStatistics(),
+                                PhaseStatistics.Phase.PARSE_STUB_FILES);
+                FileInputStream jdkStub = new FileInputStream(path.toFile())) {
             AnnotationFileParser.parseJdkFileAsStub(
                     path.toFile().getName(),
                     jdkStub,
@@ -822,6 +834,7 @@ public class AnnotationFileElementTypes {
      *
      * @param jarEntryName name of the jar entry to parse
      */
+    @SuppressWarnings("try") // `scope` is only closed
     private void parseJdkJarEntry(String jarEntryName) {
         if (stubDebug) {
             System.out.printf("entered parseJdkJarEntry(%s)%n", jarEntryName);
@@ -829,10 +842,20 @@ public class AnnotationFileElementTypes {
 
         JarURLConnection connection = getJarURLConnectionToJdk();
         ++parsingCount;
-        try (JarFile jarFile = connection.getJarFile()) {
-            try (InputStream jdkStub = jarFile.getInputStream(jarFile.getJarEntry(jarEntryName))) {
+        try (PhaseStatistics.Scope scope =
+                        PhaseStatistics.time(
+                                atypeFactory.getChecker().getPhaseStatistics(),
+                                PhaseStatistics.Phase.PARSE_STUB_FILES);
+                JarFile jarFile = connection.getJarFile()) {
+            JarEntry jarEntry = jarFile.getJarEntry(jarEntryName);
+            // The CRC identifies the contents of the entry, so a rebuilt checker.jar at the same
+            // location does not reuse stale ASTs.
+            String cacheKey =
+                    connection.getJarFileURL() + "!/" + jarEntryName + "#" + jarEntry.getCrc();
+            try (InputStream jdkStub = jarFile.getInputStream(jarEntry)) {
                 AnnotationFileParser.parseJdkFileAsStub(
                         jarEntryName,
+                        cacheKey,
                         jdkStub,
                         atypeFactory,
                         atypeFactory.getProcessingEnv(),
@@ -91,6 +91,7 @@ import org.plumelib.util.SystemPlume;
 import java.io.File;
 import java.io.InputStream;
 import java.lang.annotation.Target;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -100,6 +101,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.annotation.processing.ProcessingEnvironment;
@@ -276,6 +278,20 @@ public class AnnotationFileParser {
     /** Whether or not the {@code -AmergeStubsWithSource} command-line argument was passed. */
     private final boolean mergeStubsWithSource;
 
+    /**
+     * ASTs of annotated JDK files from checker.jar, keyed by a string that identifies the jar file,
+     * the jar entry, and the entry's contents. See {@link #parseJdkFileAsStub(String, String,
+     * InputStream, AnnotatedTypeFactory, ProcessingEnvironment, AnnotationFileAnnotations,
+     * AnnotationFileElementTypes)}.
+     *
+     * <p>Parsing an annotated JDK file with JavaParser does not depend on the compilation, so the
+     * AST is shared by all type factories (including those of subcheckers) and by all compilations
+     * that run in the same JVM, such as in a build daemon. The values are soft references, so the
+     * cache never prevents the garbage collector from reclaiming the ASTs.
+     */
+    private static final Map<String, SoftReference<StubUnit>> jdkStubUnitCache =
+            new ConcurrentHashMap<>();
+
     /**
      * The result of calling AnnotationFileParser.parse: the annotated types and declaration
      * annotations from the file.
@@ -687,11 +703,43 @@ public class AnnotationFileParser {
             AnnotationFileAnnotations annotationFileAnnos,
             AnnotationFileType fileType,
             AnnotationFileElementTypes fileElementTypes) {
+        parseStubFile(
+                filename,
+                null,
+                inputStream,
+                atypeFactory,
+                processingEnv,
+                annotationFileAnnos,
+                fileType,
+                fileElementTypes);
+    }
+
+    /**
+     * Parse a stub file and side-effects the {@code annotationFileAnnos} argument.
+     *
+     * @param filename name of stub file, used only for diagnostic messages
+     * @param cacheKey if non-null, the key of the file's AST in {@link #jdkStubUnitCache}
+     * @param inputStream of stub file to parse
+     * @param atypeFactory the type factory
+     * @param processingEnv the processing environment
+     * @param annotationFileAnnos annotations from the annotation file; side-effected by this method
+     * @param fileType the annotation file type and source
+     * @param fileElementTypes the manager that controls the stub file parsing process
+     */
+    private static void parseStubFile(
+            String filename,
+            @Nullable String cacheKey,
+            InputStream inputStream,
+            AnnotatedTypeFactory atypeFactory,
+            ProcessingEnvironment processingEnv,
+            AnnotationFileAnnotations annotationFileAnnos,
+            AnnotationFileType fileType,
+            AnnotationFileElementTypes fileElementTypes) {
         AnnotationFileParser afp =
                 new AnnotationFileParser(
                         filename, atypeFactory, processingEnv, fileType, fileElementTypes);
         try {
-            afp.parseStubUnit(inputStream);
+            afp.parseStubUnit(inputStream, cacheKey);
             afp.process(annotationFileAnnos);
         } catch (ParseProblemException e) {
             for (Problem p : e.getProblems()) {
@@ -761,6 +809,39 @@ public class AnnotationFileParser {
             ProcessingEnvironment processingEnv,
             AnnotationFileAnnotations stubAnnos,
             AnnotationFileElementTypes fileElementTypes) {
+        parseJdkFileAsStub(
+                filename,
+                null,
+                inputStream,
+                atypeFactory,
+                processingEnv,
+                stubAnnos,
+                fileElementTypes);
+    }
+
+    /**
+     * Parse a stub file that is a part of the annotated JDK and side-effects the {@code stubAnnos}
+     * argument. If {@code cacheKey} is non-null, the JavaParser AST of the file is cached under
+     * that key and reused by later calls with the same key; in that case {@code inputStream} is
+     * not read when the AST is already cached.
+     *
+     * @param filename name of stub file, used only for diagnostic messages
+     * @param cacheKey a string that identifies the contents of the file, or null to not cache its
+     *     AST
+     * @param inputStream of stub file to parse
+     * @param atypeFactory the type factory
+     * @param processingEnv the processing environment
+     * @param stubAnnos annotations from the stub file; side-effected by this method
+     * @param fileElementTypes the manager that controls the stub file parsing process
+     */
+    public static void parseJdkFileAsStub(
+            String filename,
+            @Nullable String cacheKey,
+            InputStream inputStream,
+            AnnotatedTypeFactory atypeFactory,
+            ProcessingEnvironment processingEnv,
+            AnnotationFileAnnotations stubAnnos,
+            AnnotationFileElementTypes fileElementTypes) {
         Map<String, String> options = processingEnv.getOptions();
         boolean debugAnnotationFileParser = options.containsKey("stubDebug");
         if (debugAnnotationFileParser) {
@@ -773,6 +854,7 @@ public class AnnotationFileParser {
 
         parseStubFile(
                 filename,
+                cacheKey,
                 inputStream,
                 atypeFactory,
                 processingEnv,
@@ -791,10 +873,33 @@ public class AnnotationFileParser {
      * @param inputStream the stream from which to read an annotation file
      */
     private void parseStubUnit(InputStream inputStream) {
+        parseStubUnit(inputStream, null);
+    }
+
+    /**
+     * Like {@link #parseStubUnit(InputStream)}, but reuses the AST in {@link #jdkStubUnitCache} if
+     * {@code cacheKey} is non-null.
+     *
+     * @param inputStream the stream from which to read an annotation file
+     * @param cacheKey if non-null, the key of the file's AST in {@link #jdkStubUnitCache}
+     */
+    private void parseStubUnit(InputStream inputStream, @Nullable String cacheKey) {
         stubDebug(
                 "started parsing annotation file %s for %s",
                 filename, atypeFactory.getClass().getSimpleName());
-        stubUnit = JavaParserUtil.parseStubUnit(inputStream);
+        if (cacheKey == null) {
+            stubUnit = JavaParserUtil.parseStubUnit(inputStream);
+        } else {
+            SoftReference<StubUnit> cached = jdkStubUnitCache.get(cacheKey);
+            StubUnit cachedUnit = cached == null ? null : cached.get();
+            if (cachedUnit == null) {
+                cachedUnit = JavaParserUtil.parseStubUnit(inputStream);
+                jdkStubUnitCache.put(cacheKey, new SoftReference<>(cachedUnit));
+            } else {
+                stubDebug("reusing cached AST of annotation file %s", filename);
+            }
+            stubUnit = cachedUnit;
+        }
 
         // getImportedAnnotations() also modifies importedConstants and importedTypes. This should
         // be refactored to be nicer.
@@ -3167,9 +3272,18 @@ public class AnnotationFileParser {
     /// Issue warnings
     ///
 
-    /** The warnings that have been issued so far. */
+    /** The warnings that have been issued so far in the current compilation. */
     private static final Set<String> warnings = new HashSet<>();
 
+    /**
+     * Forgets the warnings that have been issued, so that a compilation issues the same warnings
+     * whether or not the JVM has run other compilations before it. Called at the start of each
+     * compilation.
+     */
+    public static void resetWarnings() {
+        warnings.clear();
+    }
+
     /**
      * Issues the given warning about missing elements, only if it has not been previously issued
      * and the -AstubWarnIfNotFound command-line argument was passed.
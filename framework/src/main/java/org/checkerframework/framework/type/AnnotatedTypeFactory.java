@@ -69,6 +69,7 @@ import org.checkerframework.framework.util.AnnotationFormatter;
 import org.checkerframework.framework.util.CheckerMain;
 import org.checkerframework.framework.util.DefaultAnnotationFormatter;
 import org.checkerframework.framework.util.FieldInvariants;
+import org.checkerframework.framework.util.TinyLfuCache;
 import org.checkerframework.framework.util.TreePathCacher;
 import org.checkerframework.framework.util.typeinference.DefaultTypeArgumentInference;
 import org.checkerframework.framework.util.typeinference.TypeArgInferenceUtil;
@@ -111,6 +112,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -593,12 +595,12 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         this.shouldCache = !checker.hasOption("atfDoNotCache");
         if (shouldCache) {
             int cacheSize = getCacheSize();
-            this.classAndMethodTreeCache = CollectionsPlume.createLruCache(cacheSize);
-            this.fromExpressionTreeCache = CollectionsPlume.createLruCache(cacheSize);
-            this.fromMemberTreeCache = CollectionsPlume.createLruCache(cacheSize);
-            this.fromTypeTreeCache = CollectionsPlume.createLruCache(cacheSize);
-            this.elementCache = CollectionsPlume.createLruCache(cacheSize);
-            this.elementToTreeCache = CollectionsPlume.createLruCache(cacheSize);
+            this.classAndMethodTreeCache = createCache(cacheSize);
+            this.fromExpressionTreeCache = createCache(cacheSize);
+            this.fromMemberTreeCache = createCache(cacheSize);
+            this.fromTypeTreeCache = createCache(cacheSize);
+            this.elementCache = createCache(cacheSize);
+            this.elementToTreeCache = createCache(cacheSize);
             this.annotationClassNames =
                     Collections.synchronizedMap(
                             CollectionsPlume.createLruCache(ANNOTATION_CACHE_SIZE));
@@ -854,6 +856,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                     qualHierarchy.getClass(), qualHierarchy);
         }
         this.typeHierarchy = createTypeHierarchy();
+        if (shouldCache && typeHierarchy instanceof DefaultTypeHierarchy) {
+            ((DefaultTypeHierarchy) typeHierarchy).createSubtypeMemo(this);
+        }
         this.typeVarSubstitutor = createTypeVariableSubstitutor();
         this.typeArgumentInference = createTypeArgumentInference();
         this.viewpointAdapter = createViewpointAdapter();
@@ -1011,6 +1016,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
             // elementCache.clear();
         }
 
+        if (typeHierarchy instanceof DefaultTypeHierarchy) {
+            // Subtype checks are memoized per compilation unit.
+            ((DefaultTypeHierarchy) typeHierarchy).clearSubtypeMemo();
+        }
+
         if (root != null && checker.hasOption("ajava")) {
             // Search for an ajava file with annotations for the current source file and the current
             // checker. It will be in a directory specified by the "ajava" option in a subdirectory
@@ -1425,6 +1435,57 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         }
     }
 
+    /**
+     * Creates a cache of bounded size, for the caches of this type factory. Subclasses may override
+     * this method to use a different cache implementation, for all caches of the type factory at
+     * once.
+     *
+     * <p>The default implementation returns a least-recently-used cache, or a {@link TinyLfuCache}
+     * if the {@code -AatfCacheKind=tinylfu} command-line option is supplied.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     * @param size the maximum number of entries in the cache
+     * @return a new, empty cache
+     */
+    protected <K, V> Map<K, V> createCache(int size) {
+        String kind = checker.getOption("atfCacheKind", "lru");
+        switch (kind) {
+            case "lru":
+                return CollectionsPlume.createLruCache(size);
+            case "tinylfu":
+                return new TinyLfuCache<>(size);
+            default:
+                throw new UserError("atfCacheKind must be lru or tinylfu, but was " + kind);
+        }
+    }
+
+    /**
+     * Returns the hit rate and other statistics of each cache of this type factory that records
+     * them, such as a {@link TinyLfuCache}. Used by the {@code -AresourceStats} command-line
+     * option.
+     *
+     * @return a description of the statistics of each cache, one per element
+     */
+    public List<String> getCacheStatistics() {
+        Map<String, @Nullable Map<?, ?>> caches = new LinkedHashMap<>();
+        caches.put("classAndMethodTreeCache", classAndMethodTreeCache);
+        caches.put("fromExpressionTreeCache", fromExpressionTreeCache);
+        caches.put("fromMemberTreeCache", fromMemberTreeCache);
+        caches.put("fromTypeTreeCache", fromTypeTreeCache);
+        caches.put("elementCache", elementCache);
+        caches.put("elementToTreeCache", elementToTreeCache);
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, @Nullable Map<?, ?>> entry : caches.entrySet()) {
+            Map<?, ?> cache = entry.getValue();
+            if (cache instanceof TinyLfuCache) {
+                result.add(
+                        entry.getKey() + ": " + ((TinyLfuCache<?, ?>) cache).getStatistics());
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns an AnnotatedTypeMirror representing the annotated type of {@code elt}.
      *
@@ -1472,8 +1533,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         if (tree == null) {
             throw new BugInCF("AnnotatedTypeFactory.getAnnotatedType: null tree");
         }
-        if (shouldCache && classAndMethodTreeCache.containsKey(tree)) {
-            return classAndMethodTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = classAndMethodTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror type;
@@ -1650,8 +1714,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return AnnotatedTypeMirror of the element with explicitly-written and stub file annotations
      */
     public AnnotatedTypeMirror fromElement(Element elt) {
-        if (shouldCache && elementCache.containsKey(elt)) {
-            return elementCache.get(elt).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = elementCache.get(elt);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         if (elt.getKind() == ElementKind.PACKAGE) {
             return toAnnotatedType(elt.asType(), false);
@@ -1743,8 +1810,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
                     "AnnotatedTypeFactory.fromMember: not a method or variable declaration: "
                             + tree);
         }
-        if (shouldCache && fromMemberTreeCache.containsKey(tree)) {
-            return fromMemberTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromMemberTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
         AnnotatedTypeMirror result = TypeFromTree.fromMember(this, tree);
 
@@ -1836,8 +1906,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @see TypeFromExpressionVisitor
      */
     private AnnotatedTypeMirror fromExpression(ExpressionTree tree) {
-        if (shouldCache && fromExpressionTreeCache.containsKey(tree)) {
-            return fromExpressionTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromExpressionTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror result = TypeFromTree.fromExpression(this, tree);
@@ -1866,8 +1939,11 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
      * @return the (partially) annotated type of the type in the AST
      */
     /*package-private*/ final AnnotatedTypeMirror fromTypeTree(Tree tree) {
-        if (shouldCache && fromTypeTreeCache.containsKey(tree)) {
-            return fromTypeTreeCache.get(tree).deepCopy();
+        if (shouldCache) {
+            AnnotatedTypeMirror cached = fromTypeTreeCache.get(tree);
+            if (cached != null) {
+                return cached.deepCopy();
+            }
         }
 
         AnnotatedTypeMirror result = TypeFromTree.fromTypeTree(this, tree);
@@ -1008,6 +1008,22 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
 
         @Override
         public AnnotatedDeclaredType deepCopy(boolean copyAnnotations) {
+            if (enclosingType == null && (typeArgs == null || typeArgs.isEmpty())) {
+                // This type has no component types, so there is no structure to preserve and no
+                // need for an AnnotatedTypeCopier. This is the common case for cached types.
+                AnnotatedDeclaredType result =
+                        new AnnotatedDeclaredType(getUnderlyingType(), atypeFactory, declaration);
+                if (copyAnnotations) {
+                    result.addAnnotations(this.getAnnotationsField());
+                }
+                if (isUnderlyingTypeRaw) {
+                    result.setIsUnderlyingTypeRaw();
+                }
+                if (typeArgs != null) {
+                    result.setTypeArguments(Collections.emptyList());
+                }
+                return result;
+            }
             return (AnnotatedDeclaredType) new AnnotatedTypeCopier(copyAnnotations).visit(this);
         }
 
@@ -2061,7 +2077,8 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
 
         @Override
         public AnnotatedNoType deepCopy(boolean copyAnnotations) {
-            return (AnnotatedNoType) new AnnotatedTypeCopier(copyAnnotations).visit(this);
+            // This type has no component types, so a shallow copy is a deep copy.
+            return shallowCopy(copyAnnotations);
         }
 
         @Override
@@ -2103,7 +2120,8 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
 
         @Override
         public AnnotatedNullType deepCopy(boolean copyAnnotations) {
-            return (AnnotatedNullType) new AnnotatedTypeCopier(copyAnnotations).visit(this);
+            // This type has no component types, so a shallow copy is a deep copy.
+            return shallowCopy(copyAnnotations);
         }
 
         @Override
@@ -2148,7 +2166,8 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
 
         @Override
         public AnnotatedPrimitiveType deepCopy(boolean copyAnnotations) {
-            return (AnnotatedPrimitiveType) new AnnotatedTypeCopier(copyAnnotations).visit(this);
+            // This type has no component types, so a shallow copy is a deep copy.
+            return shallowCopy(copyAnnotations);
         }
 
         @Override
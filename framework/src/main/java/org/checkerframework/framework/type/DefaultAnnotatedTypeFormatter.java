@@ -114,6 +114,16 @@ public class DefaultAnnotatedTypeFormatter implements AnnotatedTypeFormatter {
         return captureConversionIds.computeIfAbsent(capturedType, key -> ++prevCaptureConversionId);
     }
 
+    /**
+     * Restarts the numbering of capture conversion IDs, so that a compilation prints the same IDs
+     * whether or not the JVM has run other compilations before it. Called at the start of each
+     * compilation.
+     */
+    public static void resetCaptureConversionIds() {
+        captureConversionIds.clear();
+        prevCaptureConversionId = 0;
+    }
+
     @Override
     public String format(AnnotatedTypeMirror type) {
         formattingVisitor.resetPrintVerboseSettings();
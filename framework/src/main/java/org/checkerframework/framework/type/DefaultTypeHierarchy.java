@@ -1,5 +1,6 @@
 package org.checkerframework.framework.type;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.framework.qual.AnnotatedFor;
 import org.checkerframework.framework.qual.Covariant;
@@ -14,14 +15,17 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcard
 import org.checkerframework.framework.type.visitor.AbstractAtmComboVisitor;
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.AtmCombo;
+import org.checkerframework.framework.util.PhaseStatistics;
 import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.TreeUtils;
 import org.checkerframework.javacutil.TypesUtils;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ElementKind;
@@ -84,6 +88,30 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
     /** The Covariant.value field/element. */
     final ExecutableElement covariantValueElement;
 
+    /**
+     * Memoizes the results of top-level calls to {@link #isSubtype(AnnotatedTypeMirror,
+     * AnnotatedTypeMirror)}, for pairs of types that have a {@link TypeKey}. Cleared whenever the
+     * compilation unit changes. Null until {@link #createSubtypeMemo} is called, which the type
+     * factory does unless the {@code -AatfDoNotCache} option was passed.
+     */
+    private @Nullable Map<SubtypeMemoKey, Boolean> subtypeMemo = null;
+
+    /** The number of top-level subtype checks whose result was found in {@link #subtypeMemo}. */
+    private long subtypeMemoHits = 0;
+
+    /**
+     * The number of top-level subtype checks whose result was memoizable but not found in {@link
+     * #subtypeMemo}.
+     */
+    private long subtypeMemoMisses = 0;
+
+    /**
+     * The number of calls to {@link #isSubtype(AnnotatedTypeMirror, AnnotatedTypeMirror)} that are
+     * in progress. Only calls that are not nested in another one are memoized, because a nested
+     * call may depend on {@link #isSubtypeVisitHistory}.
+     */
+    private int isSubtypeDepth = 0;
+
     /**
      * Creates a DefaultTypeHierarchy.
      *
@@ -112,6 +140,18 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
                         Covariant.class, "value", 0, checker.getProcessingEnvironment());
     }
 
+    /**
+     * Starts memoizing the results of subtype checks, in a cache created by {@link
+     * AnnotatedTypeFactory#createCache}, so that the {@code -AatfCacheSize} and {@code
+     * -AatfCacheKind} command-line options apply to it as to the other caches of the type factory.
+     * Called by {@link AnnotatedTypeFactory#postInit}.
+     *
+     * @param atypeFactory the type factory that uses this type hierarchy
+     */
+    /*package-private*/ void createSubtypeMemo(AnnotatedTypeFactory atypeFactory) {
+        this.subtypeMemo = atypeFactory.createCache(atypeFactory.getCacheSize());
+    }
+
     /**
      * Create the equality comparer.
      *
@@ -134,14 +174,225 @@ public class DefaultTypeHierarchy extends AbstractAtmComboVisitor<Boolean, Void>
      * @return true if subtype is a subtype of supertype or equal to it
      */
     @Override
+    @SuppressWarnings("try") // `scope` is only closed
     public boolean isSubtype(AnnotatedTypeMirror subtype, AnnotatedTypeMirror supertype) {
-        for (AnnotationMirror top : qualHierarchy.getTopAnnotations()) {
-            if (!isSubtype(subtype, supertype, top)) {
+        try (PhaseStatistics.Scope scope =
+                PhaseStatistics.time(
+                        checker.getPhaseStatistics(), PhaseStatistics.Phase.IS_SUBTYPE)) {
+            return isSubtypeMemoized(subtype, supertype);
+        }
+    }
+
+    /**
+     * Returns true if subtype {@literal <:} supertype. Implements {@link
+     * #isSubtype(AnnotatedTypeMirror, AnnotatedTypeMirror)}, using {@link #subtypeMemo}.
+     *
+     * @param subtype expected subtype
+     * @param supertype expected supertype
+     * @return true if subtype is a subtype of supertype or equal to it
+     */
+    private boolean isSubtypeMemoized(AnnotatedTypeMirror subtype, AnnotatedTypeMirror supertype) {
+        SubtypeMemoKey memoKey = null;
+        if (subtypeMemo != null && isSubtypeDepth == 0) {
+            TypeKey subKey = TypeKey.of(subtype);
+            TypeKey superKey = subKey == null ? null : TypeKey.of(supertype);
+            if (subKey != null && superKey != null) {
+                memoKey = new SubtypeMemoKey(subKey, superKey);
+                Boolean memoized = subtypeMemo.get(memoKey);
+                if (memoized != null) {
+                    subtypeMemoHits++;
+                    return memoized;
+                }
+                subtypeMemoMisses++;
+            }
+        }
+
+        boolean result = true;
+        isSubtypeDepth++;
+        try {
+            for (AnnotationMirror top : qualHierarchy.getTopAnnotations()) {
+                if (!isSubtype(subtype, supertype, top)) {
+                    result = false;
+                    break;
+                }
+            }
+        } finally {
+            isSubtypeDepth--;
+        }
+
+        if (memoKey != null && subtypeMemo != null) {
+            subtypeMemo.put(memoKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Discards the memoized results of subtype checks. Called by {@link
+     * AnnotatedTypeFactory#setRoot} whenever the compilation unit changes.
+     */
+    public void clearSubtypeMemo() {
+        if (subtypeMemo != null) {
+            subtypeMemo.clear();
+        }
+    }
+
+    /**
+     * Returns a description of how often the result of a subtype check was found in the memo,
+     * suitable for the {@code -AresourceStats} output.
+     *
+     * @return statistics about the memoized subtype checks
+     */
+    public String getSubtypeMemoStatistics() {
+        if (subtypeMemo == null) {
+            return "isSubtype memo: disabled";
+        }
+        return String.format(
+                "isSubtype memo: %d hits, %d misses", subtypeMemoHits, subtypeMemoMisses);
+    }
+
+    /**
+     * A structural key for an annotated type, used to memoize subtype checks. Two types with equal
+     * keys have the same underlying type and the same annotations, so every subtype check involving
+     * one of them has the same result as the check involving the other.
+     *
+     * <p>Only primitive types, and declared types without an enclosing type whose type arguments
+     * have keys, have a key. Other types, such as type variables and
+     * wildcards, depend on context that is expensive to compare.
+     */
+    private static final class TypeKey {
+
+        /** The components of the type that determine subtyping. */
+        private final Object[] parts;
+
+        /** The hash code of this key. */
+        private final int hashCode;
+
+        /**
+         * Creates a TypeKey.
+         *
+         * @param parts the components of the type that determine subtyping
+         * @param hashCode the hash code of this key; must be consistent with {@code parts}
+         */
+        private TypeKey(Object[] parts, int hashCode) {
+            this.parts = parts;
+            this.hashCode = hashCode;
+        }
+
+        /**
+         * Returns the key of {@code type}, or null if {@code type} has none.
+         *
+         * @param type an annotated type
+         * @return the key of {@code type}, or null if {@code type} has none
+         */
+        static @Nullable TypeKey of(AnnotatedTypeMirror type) {
+            AnnotationMirrorSet annos = type.getAnnotations();
+            switch (type.getKind()) {
+                case BOOLEAN:
+                case BYTE:
+                case SHORT:
+                case INT:
+                case LONG:
+                case CHAR:
+                case FLOAT:
+                case DOUBLE:
+                    return new TypeKey(
+                            new Object[] {type.getKind(), new AnnotationMirrorSet(annos)},
+                            31 * type.getKind().hashCode() + annotationsHashCode(annos));
+                case DECLARED:
+                    AnnotatedDeclaredType declared = (AnnotatedDeclaredType) type;
+                    if (declared.getEnclosingType() != null) {
+                        return null;
+                    }
+                    List<AnnotatedTypeMirror> typeArgs = declared.getTypeArguments();
+                    Object[] parts = new Object[4 + typeArgs.size()];
+                    parts[0] = declared.getUnderlyingType().asElement();
+                    parts[1] = declared.isUnderlyingTypeRaw();
+                    parts[2] = declared.isDeclaration();
+                    parts[3] = new AnnotationMirrorSet(annos);
+                    int hashCode = 31 * parts[0].hashCode() + annotationsHashCode(annos);
+                    for (int i = 0; i < typeArgs.size(); i++) {
+                        TypeKey typeArgKey = of(typeArgs.get(i));
+                        if (typeArgKey == null) {
+                            return null;
+                        }
+                        parts[4 + i] = typeArgKey;
+                        hashCode = 31 * hashCode + typeArgKey.hashCode;
+                    }
+                    return new TypeKey(parts, hashCode);
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Returns a hash code for {@code annos} that is consistent with {@link
+         * AnnotationUtils#areSame}, which determines the equality of annotation sets.
+         *
+         * @param annos a set of annotations
+         * @return a hash code for {@code annos}
+         */
+        private static int annotationsHashCode(AnnotationMirrorSet annos) {
+            int result = 0;
+            for (AnnotationMirror anno : annos) {
+                result += AnnotationUtils.annotationName(anno).hashCode();
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TypeKey)) {
                 return false;
             }
+            TypeKey other = (TypeKey) o;
+            return hashCode == other.hashCode && Arrays.equals(parts, other.parts);
         }
 
-        return true;
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /** A pair of {@link TypeKey}s: the key of a memoized subtype check. */
+    private static final class SubtypeMemoKey {
+
+        /** The key of the subtype. */
+        private final TypeKey subKey;
+
+        /** The key of the supertype. */
+        private final TypeKey superKey;
+
+        /**
+         * Creates a SubtypeMemoKey.
+         *
+         * @param subKey the key of the subtype
+         * @param superKey the key of the supertype
+         */
+        SubtypeMemoKey(TypeKey subKey, TypeKey superKey) {
+            this.subKey = subKey;
+            this.superKey = superKey;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SubtypeMemoKey)) {
+                return false;
+            }
+            SubtypeMemoKey other = (SubtypeMemoKey) o;
+            return subKey.equals(other.subKey) && superKey.equals(other.superKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * subKey.hashCode() + superKey.hashCode();
+        }
     }
 
     /** A set of annotations and a {@link TypeMirror}. */
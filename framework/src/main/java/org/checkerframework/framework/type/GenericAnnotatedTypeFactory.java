@@ -79,7 +79,9 @@ import org.checkerframework.framework.type.typeannotator.TypeAnnotator;
 import org.checkerframework.framework.util.AnnotatedTypes;
 import org.checkerframework.framework.util.Contract;
 import org.checkerframework.framework.util.ContractsFromMethod;
+import org.checkerframework.framework.util.HotMethodStatistics;
 import org.checkerframework.framework.util.JavaExpressionParseUtil.JavaExpressionParseException;
+import org.checkerframework.framework.util.PhaseStatistics;
 import org.checkerframework.framework.util.StringToJavaExpression;
 import org.checkerframework.framework.util.defaults.QualifierDefaults;
 import org.checkerframework.framework.util.dependenttypes.DependentTypesHelper;
@@ -306,7 +308,9 @@ public abstract class GenericAnnotatedTypeFactory<
      * Subcheckers share the same ControlFlowGraph for each analyzed code statement. This maps from
      * code statements to the shared control flow graphs. This map is null in all subcheckers (i.e.
      * any checker for which getParentChecker() returns non-null). This map is also unused (and
-     * therefore null) for a checker with no subcheckers with which it can share CFGs.
+     * therefore null) for a checker with no subcheckers with which it can share CFGs. The ultimate
+     * parent checker removes each CFG once it has used it; see {@link
+     * #removeSharedCFGForTree(Tree)}.
      *
      * <p>The initial capacity of the map is set by {@link #getCacheSize()}.
      */
@@ -353,8 +357,8 @@ public abstract class GenericAnnotatedTypeFactory<
 
         if (shouldCache) {
             int cacheSize = getCacheSize();
-            flowResultAnalysisCaches = CollectionsPlume.createLruCache(cacheSize);
-            initializerCache = CollectionsPlume.createLruCache(cacheSize);
+            flowResultAnalysisCaches = createCache(cacheSize);
+            initializerCache = createCache(cacheSize);
         } else {
             flowResultAnalysisCaches = null;
             initializerCache = null;
@@ -415,6 +419,9 @@ public abstract class GenericAnnotatedTypeFactory<
         this.poly = createQualifierPolymorphism();
 
         this.analysis = createFlowAnalysis();
+        this.analysis.setBudget(
+                getBudgetOption(checker, "dataflowBudget"),
+                getBudgetOption(checker, "dataflowTimeBudget"));
         this.transfer = analysis.getTransferFunction();
         this.emptyStore = analysis.createEmptyStore(transfer.usesSequentialSemantics());
 
@@ -621,6 +628,31 @@ public abstract class GenericAnnotatedTypeFactory<
         return defaultForTypeAnnotator;
     }
 
+    /**
+     * Returns the value of a command-line option that limits the dataflow analysis of a control
+     * flow graph; see {@link org.checkerframework.dataflow.analysis.ForwardAnalysisImpl#setBudget}.
+     *
+     * @param checker the checker whose option to read
+     * @param name the name of the option
+     * @return the value of the option, or -1 if it was not supplied
+     */
+    private static int getBudgetOption(BaseTypeChecker checker, String name) {
+        String value = checker.getOption(name);
+        if (value == null) {
+            return -1;
+        }
+        int result;
+        try {
+            result = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            result = -1;
+        }
+        if (result < 0) {
+            throw new UserError("%s must be a non-negative integer, but was %s", name, value);
+        }
+        return result;
+    }
+
     /**
      * Returns the appropriate flow analysis class that is used for the
      * org.checkerframework.dataflow analysis.
@@ -1587,6 +1619,7 @@ public abstract class GenericAnnotatedTypeFactory<
      * @param capturedStore the input Store to use for captured variables, e.g. in a lambda
      * @see #postAnalyze(org.checkerframework.dataflow.cfg.ControlFlowGraph)
      */
+    @SuppressWarnings("try") // `scope` is only closed
     protected void analyze(
             Queue<IPair<ClassTree, Store>> classQueue,
             Queue<IPair<LambdaExpressionTree, Store>> lambdaQueue,
@@ -1597,7 +1630,14 @@ public abstract class GenericAnnotatedTypeFactory<
             boolean updateInitializationStore,
             boolean isStatic,
             @Nullable Store capturedStore) {
-        ControlFlowGraph cfg = CFCFGBuilder.build(root, ast, checker, this, processingEnv);
+        HotMethodStatistics hotMethodStatistics = checker.getHotMethodStatistics();
+        long startNanos = hotMethodStatistics == null ? 0 : System.nanoTime();
+        PhaseStatistics phaseStatistics = checker.getPhaseStatistics();
+        ControlFlowGraph cfg;
+        try (PhaseStatistics.Scope scope =
+                PhaseStatistics.time(phaseStatistics, PhaseStatistics.Phase.BUILD_CFG)) {
+            cfg = CFCFGBuilder.build(root, ast, checker, this, processingEnv);
+        }
         /*
              cfg.getAllNodes(this::isIgnoredExceptionType)
                      .forEach(
@@ -1620,7 +1660,22 @@ public abstract class GenericAnnotatedTypeFactory<
         } else {
             transfer.setFixedInitialStore(capturedStore);
         }
-        analysis.performAnalysis(cfg, fieldValues);
+        try (PhaseStatistics.Scope scope =
+                PhaseStatistics.time(phaseStatistics, PhaseStatistics.Phase.PERFORM_ANALYSIS)) {
+            analysis.performAnalysis(cfg, fieldValues);
+        }
+        if (analysis.isBudgetExceeded()) {
+            Tree budgetTree =
+                    ast.getKind() == UnderlyingAST.Kind.METHOD
+                            ? ((CFGMethod) ast).getMethod()
+                            : ast.getCode();
+            checker.reportWarning(
+                    budgetTree, "dataflow.budget.exceeded", analysis.getWorklistPollCount());
+        }
+        if (hotMethodStatistics != null) {
+            recordAnalysisCost(
+                    hotMethodStatistics, ast, currentClass, cfg, System.nanoTime() - startNanos);
+        }
         AnalysisResult<Value, Store> result = analysis.getResult();
 
         // store result
@@ -1695,6 +1750,46 @@ public abstract class GenericAnnotatedTypeFactory<
         return false;
     }
 
+    /**
+     * Records the cost of analyzing a control flow graph, for the {@code -AhotMethods} command-line
+     * option. The cost of a lambda expression is attributed to its enclosing method, if any.
+     *
+     * @param hotMethodStatistics where to record the cost
+     * @param ast the code that was analyzed
+     * @param currentClass the class that contains the code
+     * @param cfg the control flow graph of the code
+     * @param nanos the elapsed time of building and analyzing the control flow graph
+     */
+    private void recordAnalysisCost(
+            HotMethodStatistics hotMethodStatistics,
+            UnderlyingAST ast,
+            ClassTree currentClass,
+            ControlFlowGraph cfg,
+            long nanos) {
+        MethodTree method;
+        switch (ast.getKind()) {
+            case METHOD:
+                method = ((CFGMethod) ast).getMethod();
+                break;
+            case LAMBDA:
+                method = ((CFGLambda) ast).getEnclosingMethod();
+                break;
+            default:
+                method = null;
+                break;
+        }
+        String methodName =
+                method == null
+                        ? null
+                        : ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(method));
+        hotMethodStatistics.record(
+                methodName,
+                ElementUtils.getQualifiedName(TreeUtils.elementFromDeclaration(currentClass)),
+                cfg.getAllBlocks().size(),
+                analysis.getWorklistPollCount(),
+                nanos);
+    }
+
     /**
      * Perform any additional operations on a CFG. Called once per CFG, after the CFG has been
      * analyzed by {@link #analyze(Queue, Queue, UnderlyingAST, List, ClassTree, boolean, boolean,
@@ -3138,6 +3233,23 @@ public abstract class GenericAnnotatedTypeFactory<
         }
     }
 
+    /**
+     * Removes the shared control flow graph for {@code tree}, if this is the ultimate parent
+     * checker. For each class, the ultimate parent checker runs after all of its subcheckers, so
+     * once it has obtained the shared CFG for {@code tree}, no other checker looks it up again.
+     * Removing it frees the CFG as soon as all checkers have analyzed {@code tree}, rather than
+     * when the next compilation unit is checked.
+     *
+     * @param tree the tree whose CFG no checker will look up again
+     */
+    public void removeSharedCFGForTree(Tree tree) {
+        @SuppressWarnings("interning") // Checking reference equality.
+        boolean isUltimateParent = this.checker.getUltimateParentChecker() == this.checker;
+        if (isUltimateParent && this.subcheckerSharedCFG != null) {
+            this.subcheckerSharedCFG.remove(tree);
+        }
+    }
+
     /**
      * Get the shared control flow graph used for {@code tree} by this checker's topmost
      * superchecker. Returns null if no information is available about the given tree, or if this
@@ -0,0 +1,554 @@
+package org.checkerframework.framework.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.regex.qual.Regex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * A long-lived JVM that runs javac, and thus the Checker Framework, for {@link CheckerMain} when
+ * the {@code -daemon} command-line argument is supplied. Reusing the JVM avoids the cost of JVM
+ * startup, class loading, and JIT warm-up on every compilation, which dominates the time to check
+ * small compilation units.
+ *
+ * <p>Each compilation still creates a new javac context and new checkers and type factories; only
+ * the JVM, its loaded and compiled code, and static fields are reused. The Checker Framework resets
+ * the static state that affects its output, such as the numbering of captured type variables in
+ * messages, at the start of each compilation (see {@link
+ * org.checkerframework.framework.source.SourceChecker#typeProcessingStart}). A checker that keeps
+ * state of a compilation in static fields of its own may behave differently with a daemon. A daemon is specific to a working directory
+ * and to the JVM command line that {@link CheckerMain} would use, including the runtime classpath
+ * and the {@code -J} options. A client that needs a different one starts another daemon.
+ *
+ * <p>The daemon listens on a loopback socket. It writes its port and a random token, which clients
+ * must send at the start of each request, to a port file in a directory that only the current user
+ * can access; clients do not trust a port file in a directory that another user could write to.
+ * The daemon handles one compilation at a time and exits after it has been idle for {@link
+ * #IDLE_TIMEOUT_MILLIS}. Its standard output and standard error are appended to a log file next to
+ * the port file.
+ *
+ * <p>Options whose output is printed when the JVM exits, such as {@code -AresourceStats}, cannot
+ * be used with a daemon; {@link #compile} returns null for them, so that the compiler runs in a
+ * new JVM.
+ */
+public final class CheckerDaemon {
+
+    /** Do not instantiate. */
+    private CheckerDaemon() {
+        throw new AssertionError("Class CheckerDaemon cannot be instantiated.");
+    }
+
+    /** The time after which a daemon that has not received a request exits, in milliseconds. */
+    public static final long IDLE_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(3);
+
+    /** The time that a client waits for a new daemon to start listening, in milliseconds. */
+    private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /** The time that a client waits to connect to a daemon, in milliseconds. */
+    private static final int CONNECT_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * The time that a client waits for the reply to a request, in milliseconds. A daemon that takes
+     * longer is presumed to hang, and the client runs javac in a new JVM instead.
+     */
+    private static final int REPLY_TIMEOUT_MILLIS = (int) TimeUnit.HOURS.toMillis(3);
+
+    /**
+     * The time that a daemon waits for each part of a request, in milliseconds. A connection that
+     * sends nothing is dropped after this time, so that it does not block other clients.
+     */
+    private static final int REQUEST_TIMEOUT_MILLIS = (int) TimeUnit.MINUTES.toMillis(1);
+
+    /** The number of bytes in the token that a client sends at the start of each request. */
+    private static final int TOKEN_LENGTH = 32;
+
+    /** The maximum number of compiler arguments in a request. */
+    private static final int MAX_ARGUMENTS = 1 << 20;
+
+    /** The maximum length in bytes of a compiler argument in a request. */
+    private static final int MAX_ARGUMENT_LENGTH = 1 << 24;
+
+    /** The maximum length in bytes of the standard output or standard error of javac in a reply. */
+    private static final int MAX_OUTPUT_LENGTH = 1 << 30;
+
+    /** The permissions of the directory of the port files: only the owner may access it. */
+    private static final Set<PosixFilePermission> PRIVATE_DIRECTORY_PERMISSIONS =
+            PosixFilePermissions.fromString("rwx------");
+
+    /** The exit status of javac for an abnormal termination, such as an uncaught exception. */
+    private static final int EXIT_ABNORMAL = 4;
+
+    /** The status that a daemon sends in reply to a request whose token is wrong. */
+    private static final int REJECTED = -1;
+
+    /**
+     * Matches the Checker Framework options whose output is printed when the JVM exits, possibly
+     * prefixed by a checker name.
+     */
+    private static final @Regex Pattern NEEDS_OWN_JVM_REGEX =
+            Pattern.compile("^-A(?:\\w+_)?(?:resourceStats|cfgviz|flowdotdir)(?:=.*)?$");
+
+    ///////////////////////////////////////////////////////////////////////////
+    /// Client
+    ///
+
+    /**
+     * Runs javac with the given arguments in a daemon, starting the daemon if necessary. Prints the
+     * output of javac to {@code System.out} and {@code System.err}.
+     *
+     * @param jvmArguments the command that starts a JVM that can run javac, without the main class
+     *     or its arguments; it identifies the daemon
+     * @param compilerArguments the arguments to javac
+     * @return the exit status of javac, or null if the daemon could not be used and the caller
+     *     should run javac in a new JVM instead
+     */
+    public static @Nullable Integer compile(
+            List<String> jvmArguments, List<String> compilerArguments) {
+        for (String arg : compilerArguments) {
+            if (NEEDS_OWN_JVM_REGEX.matcher(arg).matches()) {
+                System.err.println(
+                        "Not using the checker daemon, because "
+                                + arg
+                                + " produces its output when the JVM exits.");
+                return null;
+            }
+        }
+        try {
+            File portFile = getPortFile(jvmArguments);
+            Integer exitStatus = sendRequest(portFile, compilerArguments);
+            if (exitStatus == null) {
+                startDaemon(jvmArguments, portFile);
+                exitStatus = sendRequest(portFile, compilerArguments);
+            }
+            if (exitStatus == null) {
+                System.err.println("Could not connect to the checker daemon; running without it.");
+            }
+            return exitStatus;
+        } catch (IOException e) {
+            System.err.println(
+                    "Could not use the checker daemon; running without it: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the port file of the daemon for the current working directory and the given JVM
+     * command line.
+     *
+     * @param jvmArguments the command that starts the daemon's JVM, without the main class
+     * @return the port file of the daemon
+     * @throws IOException if the directory of the port file cannot be created or is not private
+     */
+    private static File getPortFile(List<String> jvmArguments) throws IOException {
+        String key =
+                new File("").getAbsolutePath() + '\0' + String.join("\0", jvmArguments) + '\0';
+        byte[] digest;
+        try {
+            digest =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error("SHA-256 is required in every Java implementation", e);
+        }
+        return getDaemonDirectory().resolve(toHex(digest) + ".port").toFile();
+    }
+
+    /**
+     * Returns the directory that contains the port files and log files of the current user's
+     * daemons. Creates it if it does not exist.
+     *
+     * @return the directory of the current user's daemons
+     * @throws IOException if the directory cannot be created or is not private
+     */
+    private static Path getDaemonDirectory() throws IOException {
+        Path dir =
+                Paths.get(
+                        System.getProperty("java.io.tmpdir"),
+                        "checker-framework-daemon-" + System.getProperty("user.name"));
+        try {
+            if (isPosix(dir)) {
+                Files.createDirectory(
+                        dir, PosixFilePermissions.asFileAttribute(PRIVATE_DIRECTORY_PERMISSIONS));
+            } else {
+                Files.createDirectory(dir);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // An earlier client created the directory, or another user did; check it below.
+        }
+        checkPrivateDirectory(dir);
+        return dir;
+    }
+
+    /**
+     * Throws an exception unless a directory is owned by the current user and, if the file system
+     * supports POSIX permissions, only the current user can access it. Otherwise, another user
+     * could write a port file in it and receive the compiler arguments of the current user.
+     *
+     * @param dir a directory
+     * @throws IOException if {@code dir} is not a private directory of the current user
+     */
+    private static void checkPrivateDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException(dir + " is not a directory");
+        }
+        UserPrincipal currentUser =
+                dir.getFileSystem()
+                        .getUserPrincipalLookupService()
+                        .lookupPrincipalByName(System.getProperty("user.name"));
+        UserPrincipal owner = Files.getOwner(dir, LinkOption.NOFOLLOW_LINKS);
+        if (!currentUser.equals(owner)) {
+            throw new IOException(dir + " is owned by " + owner.getName());
+        }
+        if (isPosix(dir)
+                && !PRIVATE_DIRECTORY_PERMISSIONS.containsAll(
+                        Files.getPosixFilePermissions(dir, LinkOption.NOFOLLOW_LINKS))) {
+            throw new IOException(dir + " can be accessed by other users; remove it");
+        }
+    }
+
+    /**
+     * Returns true if the file system of a path supports POSIX permissions.
+     *
+     * @param path a path
+     * @return true if the file system of {@code path} supports POSIX permissions
+     */
+    private static boolean isPosix(Path path) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * Starts a daemon in the background and waits until it has written its port file.
+     *
+     * @param jvmArguments the command that starts the daemon's JVM, without the main class
+     * @param portFile the port file that the daemon writes
+     * @throws IOException if the daemon could not be started
+     */
+    private static void startDaemon(List<String> jvmArguments, File portFile) throws IOException {
+        // Remove the port file of a daemon that has exited, so that the new one can be detected.
+        Files.deleteIfExists(portFile.toPath());
+        File logFile = new File(portFile.getPath().replaceFirst("\\.port$", ".log"));
+
+        List<String> command = new ArrayList<>(jvmArguments.size() + 2);
+        command.addAll(jvmArguments);
+        command.add(CheckerDaemon.class.getName());
+        command.add(portFile.getPath());
+        Process process =
+                new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+                        .start();
+        process.getOutputStream().close();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STARTUP_TIMEOUT_MILLIS);
+        while (!portFile.exists()) {
+            if (!process.isAlive()) {
+                throw new IOException("the daemon exited; see " + logFile);
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IOException("the daemon did not start; see " + logFile);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while starting the daemon", e);
+            }
+        }
+    }
+
+    /**
+     * Sends a compilation request to the daemon whose port file is given, and prints its output.
+     * The caller must ensure that only the current user can write to the directory of the port
+     * file.
+     *
+     * @param portFile the port file of the daemon
+     * @param compilerArguments the arguments to javac
+     * @return the exit status of javac, or null if there is no daemon or it rejected the request
+     * @throws IOException if the connection failed after the request was accepted
+     */
+    public static @Nullable Integer sendRequest(File portFile, List<String> compilerArguments)
+            throws IOException {
+        List<String> portFileLines;
+        try {
+            portFileLines = Files.readAllLines(portFile.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+        if (portFileLines.size() != 2) {
+            return null;
+        }
+        int port;
+        try {
+            port = Integer.parseInt(portFileLines.get(0));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        byte[] token = parseToken(portFileLines.get(1));
+        if (token == null) {
+            return null;
+        }
+        try (Socket s = new Socket()) {
+            try {
+                s.connect(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                        CONNECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                return null;
+            }
+            s.setSoTimeout(REPLY_TIMEOUT_MILLIS);
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            out.write(token);
+            out.writeInt(compilerArguments.size());
+            for (String arg : compilerArguments) {
+                writeString(out, arg);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            int exitStatus = in.readInt();
+            if (exitStatus == REJECTED) {
+                return null;
+            }
+            System.out.print(readString(in, MAX_OUTPUT_LENGTH));
+            System.out.flush();
+            System.err.print(readString(in, MAX_OUTPUT_LENGTH));
+            System.err.flush();
+            return exitStatus;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    /// Daemon
+    ///
+
+    /**
+     * Runs a daemon. Invoked by {@link #startDaemon} in a new JVM.
+     *
+     * @param args the path of the port file to write
+     * @throws IOException if the daemon cannot listen or write its port file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: java " + CheckerDaemon.class.getName() + " PORT_FILE");
+            System.exit(2);
+        }
+        serve(new File(args[0]).getAbsoluteFile().toPath(), IDLE_TIMEOUT_MILLIS);
+        System.exit(0);
+    }
+
+    /**
+     * Runs a daemon in the current thread: writes its port file, handles requests until no request
+     * has arrived for the given time, and then removes its port file. Used by {@link #main}, and
+     * by tests.
+     *
+     * @param portFile the absolute path of the port file to write; only the current user may be
+     *     able to access its directory
+     * @param idleTimeoutMillis the time without a request after which to return, in milliseconds
+     * @throws IOException if the daemon cannot listen or write its port file
+     */
+    public static void serve(Path portFile, long idleTimeoutMillis) throws IOException {
+        Path dir = portFile.getParent();
+        if (dir == null) {
+            throw new IOException("The port file has no directory: " + portFile);
+        }
+        checkPrivateDirectory(dir);
+        byte[] token = new byte[TOKEN_LENGTH];
+        new SecureRandom().nextBytes(token);
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            String portFileContents = server.getLocalPort() + "\n" + toHex(token) + "\n";
+            // Files.createTempFile creates a file that only the current user can read.
+            Path tmpFile = Files.createTempFile(dir, "daemon", ".tmp");
+            Files.write(tmpFile, portFileContents.getBytes(StandardCharsets.UTF_8));
+            Files.move(
+                    tmpFile,
+                    portFile,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            server.setSoTimeout((int) Math.min(idleTimeoutMillis, Integer.MAX_VALUE));
+            while (true) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    break;
+                }
+                // A malformed request must not stop the daemon, which would leave its port file
+                // behind.
+                try (Socket s = socket) {
+                    s.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+                    handleRequest(s, token);
+                } catch (IOException | RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            // Another daemon may have replaced the port file in the meantime.
+            try {
+                if (new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8)
+                        .equals(portFileContents)) {
+                    Files.delete(portFile);
+                }
+            } catch (IOException e) {
+                // The port file is already gone.
+            }
+        }
+    }
+
+    /**
+     * Reads a compilation request from a client, runs javac, and sends the result to the client.
+     *
+     * @param socket the connection to the client
+     * @param token the token that the client must send
+     * @throws IOException if the connection fails or the request is malformed
+     */
+    private static void handleRequest(Socket socket, byte[] token) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        // Read nothing else before the client has proven that it can read the port file.
+        byte[] receivedToken = new byte[TOKEN_LENGTH];
+        in.readFully(receivedToken);
+        if (!MessageDigest.isEqual(token, receivedToken)) {
+            out.writeInt(REJECTED);
+            out.flush();
+            return;
+        }
+        int numArgs = in.readInt();
+        if (numArgs < 0 || numArgs > MAX_ARGUMENTS) {
+            throw new IOException("invalid number of arguments: " + numArgs);
+        }
+        String[] args = new String[numArgs];
+        for (int i = 0; i < numArgs; i++) {
+            args[i] = readString(in, MAX_ARGUMENT_LENGTH);
+        }
+
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+        PrintStream savedOut = System.out;
+        PrintStream savedErr = System.err;
+        PrintStream capturedOut = new PrintStream(outBytes, true, "UTF-8");
+        PrintStream capturedErr = new PrintStream(errBytes, true, "UTF-8");
+        PrintWriter javacOut = new PrintWriter(capturedErr, true);
+        int exitStatus;
+        System.setOut(capturedOut);
+        System.setErr(capturedErr);
+        try {
+            exitStatus = com.sun.tools.javac.Main.compile(args, javacOut);
+        } catch (Throwable t) {
+            t.printStackTrace(capturedErr);
+            exitStatus = EXIT_ABNORMAL;
+        } finally {
+            javacOut.flush();
+            System.setOut(savedOut);
+            System.setErr(savedErr);
+        }
+
+        out.writeInt(exitStatus);
+        writeString(out, new String(outBytes.toByteArray(), StandardCharsets.UTF_8));
+        writeString(out, new String(errBytes.toByteArray(), StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    /// Protocol
+    ///
+
+    /**
+     * Writes a string of any length, in UTF-8. {@link DataOutputStream#writeUTF} is not used
+     * because it is limited to 65535 bytes, which a classpath can exceed.
+     *
+     * @param out the stream to write to
+     * @param s the string to write
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param in the stream to read from
+     * @param maxLength the maximum length of the string in bytes
+     * @return the string that was read
+     * @throws IOException if reading fails, or the length of the string is negative or greater than
+     *     {@code maxLength}
+     */
+    private static String readString(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new IOException("invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the hexadecimal representation of some bytes, two digits per byte.
+     *
+     * @param bytes the bytes to convert
+     * @return the hexadecimal representation of {@code bytes}
+     */
+    private static String toHex(byte[] bytes) {
+        return String.format("%0" + (2 * bytes.length) + "x", new BigInteger(1, bytes));
+    }
+
+    /**
+     * Parses a token written by {@link #toHex}.
+     *
+     * @param hex the hexadecimal representation of a token
+     * @return the token, or null if {@code hex} does not represent a token
+     */
+    private static byte @Nullable [] parseToken(String hex) {
+        if (hex.length() != 2 * TOKEN_LENGTH) {
+            return null;
+        }
+        byte[] token = new byte[TOKEN_LENGTH];
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            token[i] = (byte) ((high << 4) | low);
+        }
+        return token;
+    }
+}
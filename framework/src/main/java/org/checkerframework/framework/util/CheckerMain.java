@@ -128,6 +128,15 @@ public class CheckerMain {
      */
     public static final String JDK_PATH_OPT = "-jdkJar";
 
+    /**
+     * Option name for running the compiler in a long-lived JVM that is reused by later
+     * invocations; see {@link CheckerDaemon}.
+     */
+    public static final String DAEMON_OPT = "-daemon";
+
+    /** True if the compiler should run in a {@link CheckerDaemon}. */
+    protected final boolean useDaemon;
+
     /**
      * Construct all the relevant file locations and Java version given the path to this jar and a
      * set of directories in which to search for jars.
@@ -138,6 +147,7 @@ public class CheckerMain {
         File searchPath = checkerJar.getParentFile();
 
         replaceShorthandProcessor(args);
+        this.useDaemon = args.removeIf(DAEMON_OPT::equals);
         argListFiles = collectArgFiles(args);
 
         this.checkerQualJar =
@@ -432,7 +442,20 @@ public class CheckerMain {
 
     /** Invoke the compiler with all relevant jars on its classpath and/or bootclasspath. */
     public List<String> getExecArguments() {
-        List<String> args = new ArrayList<>(jvmOpts.size() + cpOpts.size() + toolOpts.size() + 7);
+        List<String> args = getJvmArguments();
+        addMainToArgs(args);
+        args.addAll(getCompilerArguments(true));
+        return args;
+    }
+
+    /**
+     * Returns the command that starts a JVM that can run the compiler, without the main class and
+     * its arguments.
+     *
+     * @return the command that starts a JVM for the compiler
+     */
+    protected List<String> getJvmArguments() {
+        List<String> args = new ArrayList<>(jvmOpts.size() + 22);
 
         // TODO: do we need java.exe on Windows?
         String java = "java";
@@ -480,16 +503,28 @@ public class CheckerMain {
         args.add("-ea:com.sun.tools...");
 
         args.addAll(jvmOpts);
+        return args;
+    }
 
-        addMainToArgs(args);
+    /**
+     * Returns the arguments to the compiler, including the classpath and processorpath.
+     *
+     * @param quotePaths true if paths that contain spaces should be quoted, as they are for the
+     *     command line of a new process
+     * @return the arguments to the compiler
+     */
+    protected List<String> getCompilerArguments(boolean quotePaths) {
+        List<String> args = new ArrayList<>(toolOpts.size() + 5);
 
         if (!argsListHasClassPath(argListFiles)) {
             args.add("-classpath");
-            args.add(quote(concatenatePaths(cpOpts)));
+            String classpath = concatenatePaths(cpOpts);
+            args.add(quotePaths ? quote(classpath) : classpath);
         }
         if (!argsListHasProcessorPath(argListFiles)) {
             args.add("-processorpath");
-            args.add(quote(concatenatePaths(ppOpts)));
+            String processorpath = concatenatePaths(ppOpts);
+            args.add(quotePaths ? quote(processorpath) : processorpath);
         }
 
         if (SystemUtil.jreVersion == 8) {
@@ -577,6 +612,15 @@ public class CheckerMain {
             }
         }
 
+        if (useDaemon) {
+            List<String> compilerArgs = getCompilerArguments(false);
+            compilerArgs.removeIf(arg -> arg.startsWith("-AoutputArgsToFile="));
+            Integer exitStatus = CheckerDaemon.compile(getJvmArguments(), compilerArgs);
+            if (exitStatus != null) {
+                return exitStatus;
+            }
+        }
+
         // Actually invoke the compiler
         return ExecUtil.execute(args.toArray(new String[args.size()]), System.out, System.err);
     }
@@ -19,6 +19,7 @@ import org.plumelib.util.StringsPlume;
 import java.lang.annotation.Annotation;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -83,6 +84,16 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
      */
     private final Map<QualifierKind, Map<QualifierKind, QualifierKind>> glbs;
 
+    /**
+     * The lubs as a flat array: the lub of kind1 and kind2 is at index {@code kind1.index *
+     * qualifierKinds.size() + kind2.index}. An entry is null if the kinds are in different
+     * hierarchies. Used instead of {@link #lubs} for the qualifier kinds of this hierarchy.
+     */
+    private final @Nullable QualifierKind[] lubTable;
+
+    /** The glbs as a flat array, indexed like {@link #lubTable}. */
+    private final @Nullable QualifierKind[] glbTable;
+
     @Override
     public Set<? extends QualifierKind> getTops() {
         return tops;
@@ -95,6 +106,10 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
 
     @Override
     public @Nullable QualifierKind leastUpperBound(QualifierKind q1, QualifierKind q2) {
+        int tableIndex = tableIndex(q1, q2);
+        if (tableIndex >= 0) {
+            return lubTable[tableIndex];
+        }
         @SuppressWarnings(
                 "nullness:dereference.of.nullable") // All QualifierKinds are keys in lubs.
         QualifierKind result = lubs.get(q1).get(q2);
@@ -103,12 +118,36 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
 
     @Override
     public @Nullable QualifierKind greatestLowerBound(QualifierKind q1, QualifierKind q2) {
+        int tableIndex = tableIndex(q1, q2);
+        if (tableIndex >= 0) {
+            return glbTable[tableIndex];
+        }
         @SuppressWarnings(
                 "nullness:dereference.of.nullable") // All QualifierKinds are keys in glbs.
         QualifierKind result = glbs.get(q1).get(q2);
         return result;
     }
 
+    /**
+     * Returns the index of the pair ({@code q1}, {@code q2}) in {@link #lubTable} and {@link
+     * #glbTable}, or -1 if either is not a qualifier kind of this hierarchy.
+     *
+     * @param q1 a qualifier kind
+     * @param q2 a qualifier kind
+     * @return the index of the pair in the lub and glb tables, or -1
+     */
+    private int tableIndex(QualifierKind q1, QualifierKind q2) {
+        if (!(q1 instanceof DefaultQualifierKind && q2 instanceof DefaultQualifierKind)) {
+            return -1;
+        }
+        DefaultQualifierKind d1 = (DefaultQualifierKind) q1;
+        DefaultQualifierKind d2 = (DefaultQualifierKind) q2;
+        if (d1.hierarchy != this || d2.hierarchy != this) {
+            return -1;
+        }
+        return d1.index * qualifierKinds.size() + d2.index;
+    }
+
     @Override
     public List<? extends QualifierKind> allQualifierKinds() {
         return qualifierKinds;
@@ -183,6 +222,64 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
         this.glbs = createGlbsMap();
 
         verifyHierarchy(directSuperMap);
+
+        this.lubTable = createTable(lubs);
+        this.glbTable = createTable(glbs);
+        initializeIndices();
+    }
+
+    /**
+     * Numbers the qualifier kinds of this hierarchy densely, in the order of {@link
+     * #qualifierKinds}, and records the strict supertypes of each kind as a bit set over those
+     * numbers. Afterwards, {@link #leastUpperBound}, {@link #greatestLowerBound}, and {@link
+     * DefaultQualifierKind#isSubtypeOf} are array and bit set lookups.
+     */
+    @SuppressWarnings(
+            "initialization:assignment") // called last in the constructor; only read afterward
+    @RequiresNonNull("this.qualifierKinds")
+    private void initializeIndices(@UnderInitialization DefaultQualifierKindHierarchy this) {
+        for (int i = 0; i < qualifierKinds.size(); i++) {
+            qualifierKinds.get(i).index = i;
+        }
+        for (DefaultQualifierKind qualifierKind : qualifierKinds) {
+            BitSet superTypeIndices = new BitSet(qualifierKinds.size());
+            for (QualifierKind superType : qualifierKind.getStrictSuperTypes()) {
+                int superIndex = qualifierKinds.indexOf(superType);
+                if (superIndex >= 0) {
+                    superTypeIndices.set(superIndex);
+                }
+            }
+            qualifierKind.strictSuperTypeIndices = superTypeIndices;
+        }
+        for (DefaultQualifierKind qualifierKind : qualifierKinds) {
+            qualifierKind.hierarchy = this;
+        }
+    }
+
+    /**
+     * Converts a map of lubs or glbs into a flat array indexed by the positions of the qualifier
+     * kinds in {@link #qualifierKinds}.
+     *
+     * @param mapOfMaps the lubs or glbs, as created by {@link #createLubsMap()} or {@link
+     *     #createGlbsMap()}
+     * @return the lubs or glbs as a flat array; see {@link #lubTable}
+     */
+    @RequiresNonNull("this.qualifierKinds")
+    private @Nullable QualifierKind[] createTable(
+            @UnderInitialization DefaultQualifierKindHierarchy this,
+            Map<QualifierKind, Map<QualifierKind, QualifierKind>> mapOfMaps) {
+        int n = qualifierKinds.size();
+        @Nullable QualifierKind[] table = new QualifierKind[n * n];
+        for (int i = 0; i < n; i++) {
+            Map<QualifierKind, QualifierKind> row = mapOfMaps.get(qualifierKinds.get(i));
+            if (row == null) {
+                continue;
+            }
+            for (int j = 0; j < n; j++) {
+                table[i * n + j] = row.get(qualifierKinds.get(j));
+            }
+        }
+        return table;
     }
 
     /**
@@ -740,6 +837,21 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
         // Set while creating the QualifierKindHierarchy.
         protected @MonotonicNonNull Set<QualifierKind> strictSuperTypes;
 
+        /**
+         * The hierarchy that this belongs to. Null until the hierarchy has numbered its qualifier
+         * kinds; until then, {@link #index} and {@link #strictSuperTypeIndices} are not valid.
+         */
+        // Set at the end of creating the QualifierKindHierarchy.
+        private @MonotonicNonNull DefaultQualifierKindHierarchy hierarchy;
+
+        /** The position of this in {@link DefaultQualifierKindHierarchy#qualifierKinds}. */
+        // Set at the end of creating the QualifierKindHierarchy.
+        private int index = -1;
+
+        /** The indices of {@link #strictSuperTypes}. */
+        // Set at the end of creating the QualifierKindHierarchy.
+        private @MonotonicNonNull BitSet strictSuperTypeIndices;
+
         /**
          * Creates a {@link DefaultQualifierKind} for the given annotation class.
          *
@@ -836,7 +948,16 @@ public class DefaultQualifierKindHierarchy implements QualifierKindHierarchy {
                                 + " this method during initialization of"
                                 + " DefaultQualifierKindHierarchy.");
             }
-            return this == superQualKind || strictSuperTypes.contains(superQualKind);
+            if (this == superQualKind) {
+                return true;
+            }
+            if (hierarchy != null
+                    && strictSuperTypeIndices != null
+                    && superQualKind instanceof DefaultQualifierKind
+                    && ((DefaultQualifierKind) superQualKind).hierarchy == hierarchy) {
+                return strictSuperTypeIndices.get(((DefaultQualifierKind) superQualKind).index);
+            }
+            return strictSuperTypes.contains(superQualKind);
         }
 
         @Override
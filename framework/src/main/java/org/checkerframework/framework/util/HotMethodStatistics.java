@@ -0,0 +1,156 @@
+package org.checkerframework.framework.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.BugInCF;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Records the cost of the dataflow analysis of each method and class, for the {@code -AhotMethods}
+ * command-line option, and reports the most expensive ones. The report helps to find the few
+ * methods, such as huge switch statements or generated parsers, that dominate the time to check a
+ * project, so that they can be excluded or suppressed specifically.
+ *
+ * <p>The cost of a method includes building its control flow graph and analyzing it, and the cost
+ * of the lambda expressions in its body. The cost of a class includes the cost of its methods and
+ * of its field initializers and initializer blocks, but not the cost of its nested classes.
+ *
+ * <p>Each {@link org.checkerframework.common.basetype.BaseTypeChecker} has its own instance; see
+ * {@link org.checkerframework.common.basetype.BaseTypeChecker#getHotMethodStatistics}.
+ */
+public final class HotMethodStatistics {
+
+    /** The cost of the analysis of one method or class. */
+    private static final class Cost {
+        /** The name of the method or class. */
+        final String name;
+
+        /** The number of blocks of the control flow graphs. */
+        long blocks = 0;
+
+        /** The number of blocks that the analysis took from its worklist. */
+        long worklistPolls = 0;
+
+        /** The elapsed time of building and analyzing the control flow graphs, in nanoseconds. */
+        long nanos = 0;
+
+        /**
+         * Creates a Cost whose counts are all zero.
+         *
+         * @param name the name of the method or class
+         */
+        Cost(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Adds the cost of analyzing one control flow graph.
+         *
+         * @param blocks the number of blocks of the control flow graph
+         * @param worklistPolls the number of blocks that the analysis took from its worklist
+         * @param nanos the elapsed time, in nanoseconds
+         */
+        void add(int blocks, int worklistPolls, long nanos) {
+            this.blocks += blocks;
+            this.worklistPolls += worklistPolls;
+            this.nanos += nanos;
+        }
+
+        @Override
+        public String toString() {
+            // The number of times each block was analyzed, on average. It is 1 if there are no
+            // loops, and grows with the number of iterations needed to reach a fixed point.
+            double iterations = blocks == 0 ? 0 : (double) worklistPolls / blocks;
+            return String.format(
+                    "%8d ms %8d blocks %9d worklist polls %6.1f iterations  %s",
+                    nanos / 1_000_000, blocks, worklistPolls, iterations, name);
+        }
+    }
+
+    /** Orders costs from most to least expensive. */
+    private static final Comparator<Cost> MOST_EXPENSIVE_FIRST =
+            Comparator.comparingLong((Cost c) -> c.nanos)
+                    .thenComparingLong(c -> c.worklistPolls)
+                    .reversed();
+
+    /** The number of methods and of classes to report. */
+    private final int limit;
+
+    /** The cost of each method, by name. */
+    private final Map<String, Cost> methods = new HashMap<>();
+
+    /** The cost of each class, by name. */
+    private final Map<String, Cost> classes = new HashMap<>();
+
+    /**
+     * Creates a HotMethodStatistics that has no costs.
+     *
+     * @param limit the number of methods and of classes to report; must be positive
+     */
+    public HotMethodStatistics(int limit) {
+        if (limit < 1) {
+            throw new BugInCF("HotMethodStatistics: limit must be positive: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * Records the cost of analyzing one control flow graph.
+     *
+     * @param methodName the name of the method that contains the code, or null if the code is not
+     *     in a method, such as a field initializer
+     * @param className the name of the class that contains the code
+     * @param blocks the number of blocks of the control flow graph
+     * @param worklistPolls the number of blocks that the analysis took from its worklist
+     * @param nanos the elapsed time of building and analyzing the control flow graph, in
+     *     nanoseconds
+     */
+    public void record(
+            @Nullable String methodName,
+            String className,
+            int blocks,
+            int worklistPolls,
+            long nanos) {
+        if (methodName != null) {
+            methods.computeIfAbsent(methodName, Cost::new).add(blocks, worklistPolls, nanos);
+        }
+        classes.computeIfAbsent(className, Cost::new).add(blocks, worklistPolls, nanos);
+    }
+
+    /**
+     * Returns a report of the most expensive methods and classes, one per line.
+     *
+     * @param checkerName the name of the checker, for the report
+     * @return a report of the most expensive methods and classes
+     */
+    public String report(String checkerName) {
+        StringJoiner result = new StringJoiner(System.lineSeparator());
+        result.add(checkerName + ": the " + limit + " most expensive methods to analyze");
+        for (Cost cost : mostExpensive(methods.values())) {
+            result.add(cost.toString());
+        }
+        result.add(checkerName + ": the " + limit + " most expensive classes to analyze");
+        for (Cost cost : mostExpensive(classes.values())) {
+            result.add(cost.toString());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the {@link #limit} most expensive of the given costs, most expensive first.
+     *
+     * @param costs the costs
+     * @return the {@link #limit} most expensive of {@code costs}
+     */
+    private List<Cost> mostExpensive(Collection<Cost> costs) {
+        List<Cost> sorted = new ArrayList<>(costs);
+        sorted.sort(MOST_EXPENSIVE_FIRST);
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+}
@@ -59,11 +59,13 @@ import org.checkerframework.javacutil.Resolver;
 import org.checkerframework.javacutil.TypesUtils;
 import org.checkerframework.javacutil.trees.TreeBuilder;
 import org.plumelib.util.CollectionsPlume;
+import org.plumelib.util.IPair;
 import org.plumelib.util.StringsPlume;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -120,6 +122,24 @@ public class JavaExpressionParseUtil {
     /** The replacement for a formal parameter in "#2" syntax. */
     private static final String PARAMETER_REPLACEMENT = PARAMETER_PREFIX + "$1";
 
+    /** The maximum number of entries in {@link #parseCache}. */
+    private static final int PARSE_CACHE_SIZE = 1000;
+
+    /**
+     * The JavaParser ASTs of recently parsed strings, keyed by the string (after formal parameters
+     * have been replaced) and the source version used to parse it. The AST depends only on the key
+     * and is never modified, so the cache is shared by all checkers. Synchronize on it to access it
+     * or the statistics below.
+     */
+    private static final Map<IPair<String, LanguageLevel>, Expression> parseCache =
+            CollectionsPlume.createLruCache(PARSE_CACHE_SIZE);
+
+    /** The number of calls to {@link #parseExpression} answered from the cache. */
+    private static long parseCacheHits = 0;
+
+    /** The number of calls to {@link #parseExpression} that ran JavaParser. */
+    private static long parseCacheMisses = 0;
+
     /**
      * Parses a string to a {@link JavaExpression}.
      *
@@ -156,9 +176,7 @@ public class JavaExpressionParseUtil {
                 StringsPlume.replaceAll(expression, FORMAL_PARAMETER, PARAMETER_REPLACEMENT);
         Expression expr;
         try {
-            expr =
-                    JavaParserUtil.parseExpression(
-                            expressionWithParameterNames, currentSourceVersion);
+            expr = parseExpression(expressionWithParameterNames, currentSourceVersion);
         } catch (ParseProblemException e) {
             String extra = ".";
             if (!e.getProblems().isEmpty()) {
@@ -194,6 +212,45 @@ public class JavaExpressionParseUtil {
         return result;
     }
 
+    /**
+     * Parses a string to a JavaParser expression, using a cache of recently parsed strings. Strings
+     * that do not parse are not cached.
+     *
+     * @param expression the string to parse, in which formal parameters have been replaced
+     * @param languageLevel the source version to parse with
+     * @return the JavaParser AST of {@code expression}; clients must not modify it
+     * @throws ParseProblemException if {@code expression} does not parse
+     */
+    private static Expression parseExpression(String expression, LanguageLevel languageLevel) {
+        IPair<String, LanguageLevel> key = IPair.of(expression, languageLevel);
+        synchronized (parseCache) {
+            Expression result = parseCache.get(key);
+            if (result != null) {
+                parseCacheHits++;
+                return result;
+            }
+            parseCacheMisses++;
+            result = JavaParserUtil.parseExpression(expression, languageLevel);
+            parseCache.put(key, result);
+            return result;
+        }
+    }
+
+    /**
+     * Returns a description of how often {@link #parse} found the JavaParser AST of its string in
+     * the cache, suitable for the {@code -AresourceStats} output. The counts include all checkers
+     * that have run in this JVM.
+     *
+     * @return statistics about the cache of parsed Java expression strings
+     */
+    public static String getParseCacheStatistics() {
+        synchronized (parseCache) {
+            return String.format(
+                    "JavaExpressionParseUtil parse cache: %d hits, %d misses",
+                    parseCacheHits, parseCacheMisses);
+        }
+    }
+
     /**
      * A visitor class that converts a JavaParser {@link Expression} to a {@link JavaExpression}.
      * This class does not viewpoint-adapt the expression.
@@ -1073,7 +1130,7 @@ public class JavaExpressionParseUtil {
             if (type.isClassOrInterfaceType()) {
                 LanguageLevel currentSourceVersion = JavaParserUtil.getCurrentSourceVersion(env);
                 try {
-                    return JavaParserUtil.parseExpression(type.asString(), currentSourceVersion)
+                    return parseExpression(type.asString(), currentSourceVersion)
                             .accept(this, null)
                             .getType();
                 } catch (ParseProblemException e) {
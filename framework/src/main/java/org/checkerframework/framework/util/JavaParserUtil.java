@@ -20,6 +20,7 @@ import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.StringLiteralExpr;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.javacutil.BugInCF;
 
 import java.io.File;
@@ -29,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Optional;
 
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.SourceVersion;
 
 /**
  * Utility methods for working with JavaParser. It is a replacement for StaticJavaParser that does
@@ -368,6 +370,13 @@ public class JavaParserUtil {
      */
     private static LanguageLevel currentSourceVersion = null;
 
+    /**
+     * The source version from which {@link #currentSourceVersion} was computed. A JVM may run
+     * several compilations with different source versions, such as with the {@code -daemon}
+     * command-line argument of {@link CheckerMain}.
+     */
+    private static @Nullable SourceVersion currentSourceVersionOf = null;
+
     /**
      * Returns the {@link com.github.javaparser.ParserConfiguration.LanguageLevel} corresponding to
      * the current source version.
@@ -377,7 +386,8 @@ public class JavaParserUtil {
      */
     public static ParserConfiguration.LanguageLevel getCurrentSourceVersion(
             ProcessingEnvironment env) {
-        if (currentSourceVersion == null) {
+        if (currentSourceVersion == null || env.getSourceVersion() != currentSourceVersionOf) {
+            currentSourceVersionOf = env.getSourceVersion();
             // Use String comparison so we can compile on older JDKs which
             // don't have all the latest SourceVersion constants:
             switch (env.getSourceVersion().name()) {
@@ -0,0 +1,244 @@
+package org.checkerframework.framework.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Measures the phases of type-checking, for the {@code -AphaseStats} command-line option. For each
+ * {@link Phase}, it accumulates the number of invocations, the elapsed wall-clock time, and the
+ * number of bytes allocated by the current thread, both in total and for the class that is
+ * currently being checked.
+ *
+ * <p>Measurements are inclusive: the time of a phase includes the time of the phases that it
+ * invokes, so the times of different phases can overlap. Nested and recursive invocations of a
+ * phase are neither counted nor measured separately from the outermost invocation.
+ *
+ * <p>Each {@link org.checkerframework.common.basetype.BaseTypeChecker} has its own instance. Code
+ * that measures a phase uses the following pattern, which does nothing if the checker does not
+ * measure phases:
+ *
+ * <pre>{@code
+ * try (PhaseStatistics.Scope scope =
+ *         PhaseStatistics.time(checker.getPhaseStatistics(), PhaseStatistics.Phase.BUILD_CFG)) {
+ *     ...
+ * }
+ * }</pre>
+ *
+ * The enclosing method needs {@code @SuppressWarnings("try")}, because {@code scope} is not
+ * referenced in the body of the try statement.
+ */
+public final class PhaseStatistics {
+
+    /** A phase of type-checking. */
+    public enum Phase {
+        /**
+         * Parsing stub files and ajava files, including annotated JDK files that are parsed on
+         * demand; see {@code AnnotationFileElementTypes}.
+         */
+        PARSE_STUB_FILES("parse stub files"),
+        /** Building control flow graphs; see {@code CFCFGBuilder}. */
+        BUILD_CFG("build CFG"),
+        /** Running the dataflow analysis on control flow graphs. */
+        PERFORM_ANALYSIS("dataflow analysis"),
+        /** Applying default qualifiers; see {@code QualifierDefaults}. */
+        APPLY_DEFAULTS("apply defaults"),
+        /** Subtype checks; see {@code DefaultTypeHierarchy}. */
+        IS_SUBTYPE("isSubtype");
+
+        /** A description of the phase, for reports. */
+        private final String description;
+
+        /**
+         * Creates a Phase.
+         *
+         * @param description a description of the phase, for reports
+         */
+        Phase(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * The invocation of a phase that is being measured. Closing it records that the invocation
+     * ends. Use it in a try-with-resources statement; see {@link #time}.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        /** Records that the invocation of the phase ends. */
+        @Override
+        void close();
+    }
+
+    /** The scope that {@link #time} returns if phases are not measured. */
+    private static final Scope NO_SCOPE = () -> {};
+
+    /** The number of phases. */
+    private static final int NUM_PHASES = Phase.values().length;
+
+    /** For each phase, the scope that {@link #time} returns; it stops measuring the phase. */
+    private final Scope[] scopes = new Scope[NUM_PHASES];
+
+    /** Used to measure allocated bytes, or null if the JVM cannot measure them. */
+    private final com.sun.management.@Nullable ThreadMXBean allocationBean;
+
+    /** For each phase, the number of invocations that are in progress. */
+    private final int[] depth = new int[NUM_PHASES];
+
+    /** For each phase, the value of {@link System#nanoTime} when the outermost invocation began. */
+    private final long[] startNanos = new long[NUM_PHASES];
+
+    /** For each phase, the bytes allocated by the thread when the outermost invocation began. */
+    private final long[] startBytes = new long[NUM_PHASES];
+
+    /** For each phase, the number of outermost invocations. */
+    private final long[] totalCount = new long[NUM_PHASES];
+
+    /** For each phase, the elapsed time of all invocations, in nanoseconds. */
+    private final long[] totalNanos = new long[NUM_PHASES];
+
+    /** For each phase, the bytes allocated by all invocations. */
+    private final long[] totalBytes = new long[NUM_PHASES];
+
+    /** For each phase, the number of outermost invocations for the current class. */
+    private final long[] classCount = new long[NUM_PHASES];
+
+    /** For each phase, the elapsed time of the invocations for the current class, in ns. */
+    private final long[] classNanos = new long[NUM_PHASES];
+
+    /** For each phase, the bytes allocated by the invocations for the current class. */
+    private final long[] classBytes = new long[NUM_PHASES];
+
+    /** Creates a PhaseStatistics whose counts are all zero. */
+    public PhaseStatistics() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            this.allocationBean = sunBean;
+        } else {
+            this.allocationBean = null;
+        }
+        for (Phase phase : Phase.values()) {
+            scopes[phase.ordinal()] = () -> stop(phase);
+        }
+    }
+
+    /**
+     * Records that an invocation of {@code phase} begins, if {@code phaseStatistics} is non-null.
+     * Closing the result records that the invocation ends. Does not allocate.
+     *
+     * @param phaseStatistics the measurements to update, or null if phases are not measured
+     * @param phase the phase that begins
+     * @return a scope whose {@link Scope#close} records that the invocation of {@code phase} ends
+     */
+    public static Scope time(@Nullable PhaseStatistics phaseStatistics, Phase phase) {
+        if (phaseStatistics == null) {
+            return NO_SCOPE;
+        }
+        phaseStatistics.start(phase);
+        return phaseStatistics.scopes[phase.ordinal()];
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far, or 0 if it cannot be
+     * measured.
+     *
+     * @return the number of bytes allocated by the current thread so far
+     */
+    @SuppressWarnings("deprecation") // Thread.getId(); its replacement is not in Java 8
+    private long allocatedBytes() {
+        if (allocationBean == null) {
+            return 0;
+        }
+        long bytes = allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        return bytes < 0 ? 0 : bytes;
+    }
+
+    /**
+     * Records that an invocation of {@code phase} begins. Must be followed by a call to {@link
+     * #stop} with the same phase, even if the invocation throws an exception.
+     *
+     * @param phase the phase that begins
+     */
+    private void start(Phase phase) {
+        int i = phase.ordinal();
+        if (depth[i]++ == 0) {
+            startNanos[i] = System.nanoTime();
+            startBytes[i] = allocatedBytes();
+        }
+    }
+
+    /**
+     * Records that an invocation of {@code phase} ends.
+     *
+     * @param phase the phase that ends
+     */
+    private void stop(Phase phase) {
+        int i = phase.ordinal();
+        if (--depth[i] == 0) {
+            long nanos = System.nanoTime() - startNanos[i];
+            long bytes = allocatedBytes() - startBytes[i];
+            totalCount[i]++;
+            totalNanos[i] += nanos;
+            totalBytes[i] += bytes;
+            classCount[i]++;
+            classNanos[i] += nanos;
+            classBytes[i] += bytes;
+        }
+    }
+
+    /**
+     * Returns a one-line report of the measurements for the current class, and starts measuring a
+     * new class.
+     *
+     * @param checkerName the name of the checker, for the report
+     * @param className the name of the class that was checked, for the report
+     * @return a report of the measurements for the class that was checked
+     */
+    public String finishClass(String checkerName, String className) {
+        String result =
+                checkerName + " " + className + ": " + format(classCount, classNanos, classBytes);
+        Arrays.fill(classCount, 0);
+        Arrays.fill(classNanos, 0);
+        Arrays.fill(classBytes, 0);
+        return result;
+    }
+
+    /**
+     * Returns a one-line report of the measurements for all classes.
+     *
+     * @param checkerName the name of the checker, for the report
+     * @return a report of the measurements for all classes
+     */
+    public String totalReport(String checkerName) {
+        return checkerName + " total: " + format(totalCount, totalNanos, totalBytes);
+    }
+
+    /**
+     * Formats measurements for all phases.
+     *
+     * @param count the number of invocations of each phase
+     * @param nanos the elapsed time of each phase, in nanoseconds
+     * @param bytes the allocated bytes of each phase
+     * @return the formatted measurements
+     */
+    private String format(long[] count, long[] nanos, long[] bytes) {
+        StringJoiner result = new StringJoiner("; ");
+        for (Phase phase : Phase.values()) {
+            int i = phase.ordinal();
+            result.add(
+                    String.format(
+                            "%s %d calls %d ms %d KB",
+                            phase.description,
+                            count[i],
+                            nanos[i] / 1_000_000,
+                            bytes[i] / 1024));
+        }
+        return result.toString();
+    }
+}
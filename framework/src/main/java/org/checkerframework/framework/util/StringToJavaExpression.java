@@ -20,10 +20,13 @@ import org.checkerframework.framework.util.JavaExpressionParseUtil.JavaExpressio
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreePathUtil;
 import org.checkerframework.javacutil.TreeUtils;
+import org.plumelib.util.IPair;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
@@ -39,6 +42,9 @@ import javax.lang.model.type.TypeMirror;
  *
  * <p>To parse a string "at a location" means to parse it as if it were written in an annotation
  * that is written on that location.
+ *
+ * <p>The results of parsing at a type, field, or method declaration are cached per compilation
+ * unit; see {@link SourceChecker#getJavaExpressionCache()}.
  */
 @FunctionalInterface
 public interface StringToJavaExpression {
@@ -73,16 +79,27 @@ public interface StringToJavaExpression {
     static JavaExpression atTypeDecl(
             String expression, TypeElement typeElement, SourceChecker checker)
             throws JavaExpressionParseException {
+        IPair<String, Element> key = IPair.of(expression, typeElement);
+        Map<IPair<String, Element>, JavaExpression> cache = checker.getJavaExpressionCache();
+        JavaExpression cached = cache == null ? null : cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
         ThisReference thisReference = new ThisReference(typeElement.asType());
         List<FormalParameter> parameters = null;
-        return JavaExpressionParseUtil.parse(
-                expression,
-                typeElement.asType(),
-                thisReference,
-                parameters,
-                null,
-                checker.getPathToCompilationUnit(),
-                checker.getProcessingEnvironment());
+        JavaExpression result =
+                JavaExpressionParseUtil.parse(
+                        expression,
+                        typeElement.asType(),
+                        thisReference,
+                        parameters,
+                        null,
+                        checker.getPathToCompilationUnit(),
+                        checker.getProcessingEnvironment());
+        if (cache != null) {
+            cache.put(key, result);
+        }
+        return result;
     }
 
     /**
@@ -99,6 +116,12 @@ public interface StringToJavaExpression {
     static JavaExpression atFieldDecl(
             String expression, VariableElement fieldElement, SourceChecker checker)
             throws JavaExpressionParseException {
+        IPair<String, Element> key = IPair.of(expression, fieldElement);
+        Map<IPair<String, Element>, JavaExpression> cache = checker.getJavaExpressionCache();
+        JavaExpression cached = cache == null ? null : cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
         TypeMirror enclosingType = ElementUtils.enclosingTypeElement(fieldElement).asType();
         ThisReference thisReference;
         if (ElementUtils.isStatic(fieldElement)) {
@@ -108,14 +131,19 @@ public interface StringToJavaExpression {
             thisReference = new ThisReference(enclosingType);
         }
         List<FormalParameter> parameters = null;
-        return JavaExpressionParseUtil.parse(
-                expression,
-                enclosingType,
-                thisReference,
-                parameters,
-                null,
-                checker.getPathToCompilationUnit(),
-                checker.getProcessingEnvironment());
+        JavaExpression result =
+                JavaExpressionParseUtil.parse(
+                        expression,
+                        enclosingType,
+                        thisReference,
+                        parameters,
+                        null,
+                        checker.getPathToCompilationUnit(),
+                        checker.getProcessingEnvironment());
+        if (cache != null) {
+            cache.put(key, result);
+        }
+        return result;
     }
 
     /**
@@ -135,6 +163,12 @@ public interface StringToJavaExpression {
     static JavaExpression atMethodDecl(
             String expression, ExecutableElement method, SourceChecker checker)
             throws JavaExpressionParseException {
+        IPair<String, Element> key = IPair.of(expression, method);
+        Map<IPair<String, Element>, JavaExpression> cache = checker.getJavaExpressionCache();
+        JavaExpression cached = cache == null ? null : cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
         TypeMirror enclosingType = ElementUtils.enclosingTypeElement(method).asType();
         ThisReference thisReference;
         if (ElementUtils.isStatic(method)) {
@@ -144,14 +178,19 @@ public interface StringToJavaExpression {
             thisReference = new ThisReference(enclosingType);
         }
         List<FormalParameter> parameters = JavaExpression.getFormalParameters(method);
-        return JavaExpressionParseUtil.parse(
-                expression,
-                enclosingType,
-                thisReference,
-                parameters,
-                null,
-                checker.getPathToCompilationUnit(),
-                checker.getProcessingEnvironment());
+        JavaExpression result =
+                JavaExpressionParseUtil.parse(
+                        expression,
+                        enclosingType,
+                        thisReference,
+                        parameters,
+                        null,
+                        checker.getPathToCompilationUnit(),
+                        checker.getProcessingEnvironment());
+        if (cache != null) {
+            cache.put(key, result);
+        }
+        return result;
     }
 
     /**
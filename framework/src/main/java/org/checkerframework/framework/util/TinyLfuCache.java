@@ -0,0 +1,521 @@
+package org.checkerframework.framework.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.javacutil.BugInCF;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map of bounded size that evicts entries according to the W-TinyLFU policy, and that is safe
+ * for concurrent use.
+ *
+ * <p>Compared to a least-recently-used cache, such as those created by {@code
+ * CollectionsPlume.createLruCache}, W-TinyLFU keeps entries that are used often even if they have
+ * not been used recently. A new entry first enters a small LRU window. When it leaves the window,
+ * it is only admitted to the main space if it has been requested more often than the entry that it
+ * would replace. The main space is a segmented LRU: entries that are hit again are promoted from
+ * its probation segment to its protected segment. Request frequencies are estimated by a
+ * count-min sketch with 4-bit counters, which are halved periodically so that old requests count
+ * less than recent ones.
+ *
+ * <p>The map is divided into stripes, each guarded by its own lock and each with its own share of
+ * the capacity, so threads that use different keys rarely contend.
+ *
+ * <p>Looking up a key with {@link #get} is a request that updates the frequencies and the recency
+ * order; {@link #containsKey} is not. The map permits null values but not null keys. Iterating
+ * over the map iterates over a snapshot; modifying the map through the snapshot is not supported.
+ * Each method is atomic, but a sequence of calls is not: for example, {@link #computeIfAbsent} may
+ * compute a value that another thread has put in the meantime.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class TinyLfuCache<K, V> extends AbstractMap<K, V> {
+
+    /** The maximum number of stripes. */
+    private static final int MAX_STRIPES = 16;
+
+    /** The minimum capacity of a stripe, unless the capacity of the whole map is smaller. */
+    private static final int MIN_STRIPE_CAPACITY = 64;
+
+    /** Represents a null value in the maps of a stripe. */
+    private static final Object NULL_VALUE = new Object();
+
+    /** The stripes of this map. A key belongs to the stripe that {@link #stripeFor} returns. */
+    private final Stripe[] stripes;
+
+    /**
+     * Creates an empty TinyLfuCache.
+     *
+     * @param capacity the maximum number of entries in the map; must be positive
+     */
+    public TinyLfuCache(int capacity) {
+        if (capacity < 1) {
+            throw new BugInCF("TinyLfuCache: capacity must be positive, but is " + capacity);
+        }
+        int numStripes = 1;
+        while (numStripes < MAX_STRIPES && capacity / (numStripes * 2) >= MIN_STRIPE_CAPACITY) {
+            numStripes *= 2;
+        }
+        stripes = new Stripe[numStripes];
+        for (int i = 0; i < numStripes; i++) {
+            // Distribute the remainder of the division among the first stripes.
+            int stripeCapacity = capacity / numStripes + (i < capacity % numStripes ? 1 : 0);
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    /**
+     * Returns a well-distributed hash code for {@code key}.
+     *
+     * @param key a key
+     * @return a hash code for {@code key}
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the stripe that holds the entry for a key with the given hash code.
+     *
+     * @param hash the result of {@link #hash} for a key
+     * @return the stripe for the key
+     */
+    private Stripe stripeFor(int hash) {
+        // The number of stripes is a power of two. Use the high bits, because the sketch of each
+        // stripe uses the low bits.
+        return stripes[(hash >>> 24) & (stripes.length - 1)];
+    }
+
+    @Override
+    public @Nullable V get(@Nullable Object key) {
+        if (key == null) {
+            return null;
+        }
+        int hash = hash(key);
+        return unmask(stripeFor(hash).get(key, hash));
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        if (key == null) {
+            return false;
+        }
+        return stripeFor(hash(key)).containsKey(key);
+    }
+
+    @Override
+    public @Nullable V put(K key, V value) {
+        if (key == null) {
+            throw new BugInCF("TinyLfuCache does not permit null keys");
+        }
+        int hash = hash(key);
+        return unmask(stripeFor(hash).put(key, hash, value == null ? NULL_VALUE : value));
+    }
+
+    @Override
+    public @Nullable V remove(@Nullable Object key) {
+        if (key == null) {
+            return null;
+        }
+        return unmask(stripeFor(hash(key)).remove(key));
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Returns an unmodifiable snapshot of the entries. The snapshot of each stripe is consistent,
+     * but the stripes may be modified between their snapshots.
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Map<K, V> snapshot = new LinkedHashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.copyInto(snapshot);
+        }
+        return Collections.unmodifiableMap(snapshot).entrySet();
+    }
+
+    /**
+     * Returns a description of the hits, misses, evictions, and rejected admissions of this map.
+     *
+     * @return statistics about the use of this map
+     */
+    public String getStatistics() {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        long rejections = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.hits;
+                misses += stripe.misses;
+                evictions += stripe.evictions;
+                rejections += stripe.rejections;
+            }
+        }
+        long requests = hits + misses;
+        return String.format(
+                "%d hits, %d misses (%.1f%% hit rate), %d evictions, %d rejected admissions",
+                hits,
+                misses,
+                requests == 0 ? 0.0 : 100.0 * hits / requests,
+                evictions,
+                rejections);
+    }
+
+    /**
+     * Converts a value from the maps of a stripe to a value of this map.
+     *
+     * @param value a value from a stripe, or null if there is none
+     * @return {@code value}, or null if it is {@link #NULL_VALUE}
+     */
+    @SuppressWarnings("unchecked") // the stripes contain only values of type V and NULL_VALUE
+    private static <V> @Nullable V unmask(@Nullable Object value) {
+        return value == NULL_VALUE ? null : (V) value;
+    }
+
+    /**
+     * A part of a {@link TinyLfuCache}, which holds the entries for some of the keys. All its
+     * methods must be called while holding its lock.
+     */
+    private static final class Stripe {
+
+        /** The most recently admitted entries, in access order. */
+        private final LinkedHashMap<Object, Object> window =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        /** The entries of the main space that have not been hit since they were admitted. */
+        private final LinkedHashMap<Object, Object> probation =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        /** The entries of the main space that have been hit since they were admitted. */
+        private final LinkedHashMap<Object, Object> protectedSegment =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        /** The maximum size of {@link #window}. */
+        private final int windowCapacity;
+
+        /** The maximum total size of {@link #probation} and {@link #protectedSegment}. */
+        private final int mainCapacity;
+
+        /** The maximum size of {@link #protectedSegment}. */
+        private final int protectedCapacity;
+
+        /** The estimated request frequencies of keys. */
+        private final FrequencySketch sketch;
+
+        /** The number of calls to {@link #get} that found an entry. */
+        long hits = 0;
+
+        /** The number of calls to {@link #get} that found no entry. */
+        long misses = 0;
+
+        /** The number of entries that were removed to make room for others. */
+        long evictions = 0;
+
+        /** The number of entries that left the window and were not admitted to the main space. */
+        long rejections = 0;
+
+        /**
+         * Creates an empty Stripe.
+         *
+         * @param capacity the maximum number of entries in the stripe; must be positive
+         */
+        Stripe(int capacity) {
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.mainCapacity = capacity - windowCapacity;
+            this.protectedCapacity = mainCapacity * 4 / 5;
+            this.sketch = new FrequencySketch(capacity);
+        }
+
+        /**
+         * Returns the value for a key, and records the request.
+         *
+         * @param key a key
+         * @param hash the hash of {@code key}
+         * @return the value for {@code key}, or null if there is none
+         */
+        synchronized @Nullable Object get(Object key, int hash) {
+            sketch.increment(hash);
+            Object value = window.get(key);
+            if (value == null) {
+                value = protectedSegment.get(key);
+            }
+            if (value == null) {
+                value = probation.remove(key);
+                if (value != null) {
+                    // A hit in probation promotes the entry to the protected segment.
+                    protectedSegment.put(key, value);
+                    demoteFromProtected();
+                }
+            }
+            if (value == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return value;
+        }
+
+        /**
+         * Returns true if the stripe contains an entry for the key. Does not record a request.
+         *
+         * @param key a key
+         * @return true if the stripe contains an entry for {@code key}
+         */
+        synchronized boolean containsKey(Object key) {
+            return window.containsKey(key)
+                    || probation.containsKey(key)
+                    || protectedSegment.containsKey(key);
+        }
+
+        /**
+         * Adds or replaces the entry for a key.
+         *
+         * @param key a key
+         * @param hash the hash of {@code key}
+         * @param value the value for {@code key}
+         * @return the previous value for {@code key}, or null if there was none
+         */
+        synchronized @Nullable Object put(Object key, int hash, Object value) {
+            if (window.containsKey(key)) {
+                return window.put(key, value);
+            }
+            if (protectedSegment.containsKey(key)) {
+                return protectedSegment.put(key, value);
+            }
+            if (probation.containsKey(key)) {
+                return probation.put(key, value);
+            }
+            sketch.increment(hash);
+            window.put(key, value);
+            if (window.size() > windowCapacity) {
+                Iterator<Map.Entry<Object, Object>> iterator = window.entrySet().iterator();
+                Map.Entry<Object, Object> candidate = iterator.next();
+                iterator.remove();
+                admit(candidate.getKey(), candidate.getValue());
+            }
+            return null;
+        }
+
+        /**
+         * Moves an entry that left the window to the main space, if it is requested more often
+         * than the entry it would replace.
+         *
+         * @param key the key of the entry that left the window
+         * @param value the value of the entry that left the window
+         */
+        private void admit(Object key, Object value) {
+            if (probation.size() + protectedSegment.size() < mainCapacity) {
+                probation.put(key, value);
+                return;
+            }
+            Map.Entry<Object, Object> victim = eldest(probation);
+            if (victim == null) {
+                // The protected segment fills the main space; its eldest entry is the victim.
+                victim = eldest(protectedSegment);
+            }
+            if (victim == null
+                    || sketch.frequency(hash(key)) <= sketch.frequency(hash(victim.getKey()))) {
+                rejections++;
+                evictions++;
+                return;
+            }
+            if (probation.remove(victim.getKey()) == null) {
+                protectedSegment.remove(victim.getKey());
+            }
+            evictions++;
+            probation.put(key, value);
+        }
+
+        /** Moves the eldest entries of the protected segment to probation, if it is too large. */
+        private void demoteFromProtected() {
+            while (protectedSegment.size() > protectedCapacity) {
+                Iterator<Map.Entry<Object, Object>> iterator =
+                        protectedSegment.entrySet().iterator();
+                Map.Entry<Object, Object> eldest = iterator.next();
+                iterator.remove();
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+
+        /**
+         * Returns the least recently used entry of a map in access order.
+         *
+         * @param map a map in access order
+         * @return the least recently used entry of {@code map}, or null if it is empty
+         */
+        private static Map.@Nullable Entry<Object, Object> eldest(
+                LinkedHashMap<Object, Object> map) {
+            return map.isEmpty() ? null : map.entrySet().iterator().next();
+        }
+
+        /**
+         * Removes the entry for a key.
+         *
+         * @param key a key
+         * @return the previous value for {@code key}, or null if there was none
+         */
+        synchronized @Nullable Object remove(Object key) {
+            Object value = window.remove(key);
+            if (value == null) {
+                value = probation.remove(key);
+            }
+            if (value == null) {
+                value = protectedSegment.remove(key);
+            }
+            return value;
+        }
+
+        /** Removes all entries. Keeps the estimated frequencies and the statistics. */
+        synchronized void clear() {
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        }
+
+        /**
+         * Returns the number of entries.
+         *
+         * @return the number of entries
+         */
+        synchronized int size() {
+            return window.size() + probation.size() + protectedSegment.size();
+        }
+
+        /**
+         * Adds all entries of this stripe to {@code snapshot}.
+         *
+         * @param <K> the type of keys
+         * @param <V> the type of values
+         * @param snapshot the map to add the entries to
+         */
+        @SuppressWarnings("unchecked") // the stripes of a TinyLfuCache<K, V> contain only K and V
+        synchronized <K, V> void copyInto(Map<K, V> snapshot) {
+            List<Map<Object, Object>> parts = new ArrayList<>(3);
+            parts.add(window);
+            parts.add(probation);
+            parts.add(protectedSegment);
+            for (Map<Object, Object> part : parts) {
+                for (Map.Entry<Object, Object> entry : part.entrySet()) {
+                    snapshot.put((K) entry.getKey(), TinyLfuCache.<V>unmask(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * A count-min sketch that estimates how often each key was requested, with 4-bit counters.
+     * When the number of recorded requests reaches ten times the capacity of the cache, all
+     * counters are halved, so that the estimates favor recent requests.
+     */
+    private static final class FrequencySketch {
+
+        /** The number of counters that each key increments. */
+        private static final int DEPTH = 4;
+
+        /** The multipliers that select the counter of a key in each row. */
+        private static final int[] SEEDS = {0x97CB3127, 0xB4B82E5F, 0xDA1D8EA1, 0xC2B2AE35};
+
+        /** The maximum value of a counter. */
+        private static final int MAX_COUNT = 15;
+
+        /** The counters; {@link #DEPTH} rows of {@link #width} counters each. */
+        private final byte[] counters;
+
+        /** The number of counters in each row; a power of two. */
+        private final int width;
+
+        /** The number of recorded requests after which all counters are halved. */
+        private final int sampleSize;
+
+        /** The number of requests recorded since the counters were last halved. */
+        private int additions = 0;
+
+        /**
+         * Creates a FrequencySketch in which every key has frequency 0.
+         *
+         * @param capacity the capacity of the cache whose keys are counted
+         */
+        FrequencySketch(int capacity) {
+            int w = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            this.width = w;
+            this.counters = new byte[DEPTH * w];
+            this.sampleSize = 10 * Math.max(16, capacity);
+        }
+
+        /**
+         * Returns the index of the counter for a key in a row.
+         *
+         * @param hash the hash of the key
+         * @param row a row
+         * @return the index in {@link #counters} of the counter for the key in {@code row}
+         */
+        private int indexOf(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 17;
+            return row * width + (h & (width - 1));
+        }
+
+        /**
+         * Records a request for a key.
+         *
+         * @param hash the hash of the key
+         */
+        void increment(int hash) {
+            boolean incremented = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = indexOf(hash, row);
+                if (counters[index] < MAX_COUNT) {
+                    counters[index]++;
+                    incremented = true;
+                }
+            }
+            if (incremented && ++additions >= sampleSize) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] = (byte) (counters[i] >>> 1);
+                }
+                additions /= 2;
+            }
+        }
+
+        /**
+         * Returns the estimated number of requests for a key.
+         *
+         * @param hash the hash of the key
+         * @return the estimated number of requests for the key, at most {@link #MAX_COUNT}
+         */
+        int frequency(int hash) {
+            int result = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                result = Math.min(result, counters[indexOf(hash, row)]);
+            }
+            return result;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.visitor.AnnotatedTypeScanner;
 import org.checkerframework.framework.util.AnnotatedTypes;
+import org.checkerframework.framework.util.PhaseStatistics;
 import org.checkerframework.javacutil.AnnotationBuilder;
 import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.AnnotationUtils;
@@ -429,6 +430,7 @@ public class QualifierDefaults {
      * @param elt the element from which the type was obtained
      * @param type the type to annotate
      */
+    @SuppressWarnings("try") // `scope` is only closed
     public void annotate(Element elt, AnnotatedTypeMirror type) {
         if (elt != null) {
             switch (elt.getKind()) {
@@ -458,10 +460,15 @@ public class QualifierDefaults {
             }
         }
 
-        // false b/c Element version only used when from bytecode,
-        // which cannot observe local variables.
-        // TODO: clean up.
-        applyDefaultsElement(elt, type, false);
+        try (PhaseStatistics.Scope scope =
+                PhaseStatistics.time(
+                        atypeFactory.getChecker().getPhaseStatistics(),
+                        PhaseStatistics.Phase.APPLY_DEFAULTS)) {
+            // false b/c Element version only used when from bytecode,
+            // which cannot observe local variables.
+            // TODO: clean up.
+            applyDefaultsElement(elt, type, false);
+        }
     }
 
     /**
@@ -470,8 +477,14 @@ public class QualifierDefaults {
      * @param tree the tree from which the type was obtained
      * @param type the type to annotate
      */
+    @SuppressWarnings("try") // `scope` is only closed
     public void annotate(Tree tree, AnnotatedTypeMirror type) {
-        applyDefaults(tree, type);
+        try (PhaseStatistics.Scope scope =
+                PhaseStatistics.time(
+                        atypeFactory.getChecker().getPhaseStatistics(),
+                        PhaseStatistics.Phase.APPLY_DEFAULTS)) {
+            applyDefaults(tree, type);
+        }
     }
 
     /**
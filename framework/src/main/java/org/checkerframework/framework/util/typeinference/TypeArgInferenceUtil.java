@@ -473,6 +473,8 @@ public class TypeArgInferenceUtil {
 
         AnnotatedTypeMirror toModifyCopy = toModify.deepCopy();
         substitutor.substitute(substituteMap, toModifyCopy);
+        // Do not keep the type factory of this compilation alive.
+        substituteMap.clear();
         return toModifyCopy;
     }
 
@@ -0,0 +1,108 @@
+package org.checkerframework.framework.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+
+/**
+ * Tests the format of the file that {@link DiagnosticsJsonLinesWriter} writes. This test is in the
+ * package of the writer, which is not public.
+ */
+public class DiagnosticsJsonLinesWriterTest {
+
+    /**
+     * Writes diagnostics with a writer, closes it, and returns the lines of its file.
+     *
+     * @param perFileLimit the maximum number of diagnostics to write for a source file
+     * @param diagnostics the diagnostics to write: pairs of a file (possibly null) and a message
+     * @return the lines of the file
+     * @throws IOException if the file cannot be created or read
+     */
+    private static List<String> write(int perFileLimit, String... diagnostics)
+            throws IOException {
+        File file = File.createTempFile("diagnostics", ".jsonl");
+        try {
+            DiagnosticsJsonLinesWriter writer =
+                    new DiagnosticsJsonLinesWriter(file.getPath(), perFileLimit, false);
+            for (int i = 0; i < diagnostics.length; i += 2) {
+                writer.write(
+                        "TestChecker",
+                        Diagnostic.Kind.ERROR,
+                        "test.key",
+                        diagnostics[i + 1],
+                        diagnostics[i],
+                        3,
+                        5);
+            }
+            Assert.assertEquals(diagnostics.length / 2, writer.getErrorCount());
+            writer.close();
+            writer.close();
+            Assert.assertTrue(writer.isClosed());
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void escaping() throws IOException {
+        List<String> lines = write(Integer.MAX_VALUE, "Dir\\\"A\".java", "a\"b\\c\nd\te\r\u0001");
+        Assert.assertEquals(1, lines.size());
+        Assert.assertEquals(
+                "{\"checker\":\"TestChecker\",\"kind\":\"ERROR\",\"key\":\"test.key\","
+                        + "\"message\":\"a\\\"b\\\\c\\nd\\te\\r\\u0001\","
+                        + "\"file\":\"Dir\\\\\\\"A\\\".java\",\"line\":3,\"column\":5}",
+                lines.get(0));
+    }
+
+    @Test
+    public void noPosition() throws IOException {
+        List<String> lines = write(Integer.MAX_VALUE, null, "no position");
+        Assert.assertEquals(1, lines.size());
+        String line = lines.get(0);
+        Assert.assertTrue(line, line.endsWith(",\"file\":null,\"line\":null,\"column\":null}"));
+    }
+
+    @Test
+    public void perFileLimit() throws IOException {
+        List<String> lines =
+                write(
+                        2,
+                        "A.java",
+                        "1",
+                        "A.java",
+                        "2",
+                        "B.java",
+                        "3",
+                        "A.java",
+                        "4",
+                        "A.java",
+                        "5",
+                        null,
+                        "6",
+                        null,
+                        "7",
+                        null,
+                        "8");
+        // Two diagnostics for A.java, one note, one for B.java, and all without a position.
+        Assert.assertEquals(7, lines.size());
+        int notes = 0;
+        for (String line : lines) {
+            if (line.contains("\"key\":\"diagnostics.limit\"")) {
+                notes++;
+                Assert.assertTrue(line, line.contains("\"kind\":\"NOTE\""));
+                Assert.assertTrue(line, line.contains("\"file\":\"A.java\""));
+            }
+        }
+        Assert.assertEquals(1, notes);
+        Assert.assertFalse(String.join("\n", lines).contains("\"message\":\"4\""));
+        Assert.assertFalse(String.join("\n", lines).contains("\"message\":\"5\""));
+    }
+}
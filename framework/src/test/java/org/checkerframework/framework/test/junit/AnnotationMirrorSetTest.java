@@ -0,0 +1,193 @@
+package org.checkerframework.framework.test.junit;
+
+import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.main.Option;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Options;
+
+import org.checkerframework.framework.testchecker.util.AnnoWithStringArg;
+import org.checkerframework.framework.testchecker.util.Encrypted;
+import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.AnnotationMirrorSet;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+
+public class AnnotationMirrorSetTest {
+
+    private final ProcessingEnvironment env;
+
+    public AnnotationMirrorSetTest() {
+        Context context = new Context();
+        // Set source and target to 8
+        Options options = Options.instance(context);
+        options.put(Option.SOURCE, "8");
+        options.put(Option.TARGET, "8");
+
+        env = JavacProcessingEnvironment.instance(context);
+        JavaCompiler javac = JavaCompiler.instance(context);
+        // Even though source/target are set to 8, the modules in the JavaCompiler
+        // need to be initialized by setting the list of modules to nil.
+        javac.initModules(com.sun.tools.javac.util.List.nil());
+        javac.enterDone();
+    }
+
+    /**
+     * Returns a new {@code @AnnoWithStringArg} annotation. Each call returns a different object,
+     * so that the set cannot find it by reference.
+     *
+     * @param value the value of the annotation
+     * @return a new {@code @AnnoWithStringArg(value)} annotation
+     */
+    private AnnotationMirror withArg(String value) {
+        AnnotationBuilder builder = new AnnotationBuilder(env, AnnoWithStringArg.class);
+        builder.setValue("value", value);
+        return builder.build();
+    }
+
+    /**
+     * Returns a new {@code @Encrypted} annotation.
+     *
+     * @return a new {@code @Encrypted} annotation
+     */
+    private AnnotationMirror encrypted() {
+        return new AnnotationBuilder(env, Encrypted.class).build();
+    }
+
+    @Test
+    public void sameNameDifferentValues() {
+        AnnotationMirrorSet set = new AnnotationMirrorSet();
+        Assert.assertTrue(set.add(withArg("a")));
+        Assert.assertTrue(set.add(withArg("b")));
+        Assert.assertTrue(set.add(encrypted()));
+        Assert.assertFalse(set.add(withArg("a")));
+        Assert.assertFalse(set.add(encrypted()));
+        Assert.assertEquals(3, set.size());
+
+        Assert.assertTrue(set.contains(withArg("a")));
+        Assert.assertTrue(set.contains(withArg("b")));
+        Assert.assertFalse(set.contains(withArg("c")));
+
+        Assert.assertTrue(set.remove(withArg("a")));
+        Assert.assertFalse(set.remove(withArg("a")));
+        Assert.assertFalse(set.contains(withArg("a")));
+        Assert.assertTrue(set.contains(withArg("b")));
+        Assert.assertEquals(2, set.size());
+    }
+
+    /**
+     * Returns a new annotation for a key: {@code @Encrypted} for "encrypted", and otherwise
+     * {@code @AnnoWithStringArg(key)}.
+     *
+     * @param key the key of the annotation
+     * @return a new annotation for {@code key}
+     */
+    private AnnotationMirror fresh(String key) {
+        return key.equals("encrypted") ? encrypted() : withArg(key);
+    }
+
+    @Test
+    public void orderAfterAddAndRemove() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add("v" + i);
+        }
+        keys.add("encrypted");
+        TreeSet<AnnotationMirror> expected =
+                new TreeSet<>(AnnotationUtils::compareAnnotationMirrors);
+        AnnotationMirrorSet set = new AnnotationMirrorSet();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            String key = keys.get(random.nextInt(keys.size()));
+            AnnotationMirror anno = fresh(key);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    Assert.assertEquals(expected.add(anno), set.add(anno));
+                    break;
+                case 2:
+                    Assert.assertEquals(expected.remove(anno), set.remove(anno));
+                    break;
+                default:
+                    Iterator<AnnotationMirror> iterator = set.iterator();
+                    if (iterator.hasNext()) {
+                        AnnotationMirror first = iterator.next();
+                        iterator.remove();
+                        Assert.assertSame(expected.pollFirst(), first);
+                    }
+                    break;
+            }
+            // Both sets keep the first of several equal annotations, so they hold the same
+            // objects in the same order.
+            Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+            Assert.assertEquals(expected.size(), set.size());
+            Assert.assertEquals(expected.contains(anno), set.contains(fresh(key)));
+            if (!set.isEmpty()) {
+                Assert.assertSame(expected.first(), set.first());
+                Assert.assertSame(expected.last(), set.last());
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableAdd() {
+        AnnotationMirrorSet set = AnnotationMirrorSet.singleton(withArg("a"));
+        set.add(withArg("b"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableRemove() {
+        AnnotationMirrorSet set = new AnnotationMirrorSet(withArg("a")).makeUnmodifiable();
+        set.remove(withArg("a"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableIteratorRemove() {
+        AnnotationMirrorSet set = AnnotationMirrorSet.singleton(withArg("a"));
+        Iterator<AnnotationMirror> iterator = set.iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableClear() {
+        AnnotationMirrorSet.singleton(withArg("a")).clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void emptySetAdd() {
+        AnnotationMirrorSet.emptySet().add(withArg("a"));
+    }
+
+    @Test
+    public void deepCopy() {
+        AnnotationMirrorSet set = new AnnotationMirrorSet();
+        set.add(withArg("a"));
+        set.add(withArg("b"));
+        set.makeUnmodifiable();
+
+        AnnotationMirrorSet copy = set.deepCopy();
+        Assert.assertEquals(set, copy);
+        Assert.assertEquals(new ArrayList<>(set), new ArrayList<>(copy));
+        // The copy is modifiable, and changing it does not change the original.
+        Assert.assertTrue(copy.add(withArg("c")));
+        Assert.assertTrue(copy.remove(withArg("a")));
+        Assert.assertEquals(2, set.size());
+        Assert.assertTrue(set.contains(withArg("a")));
+        Assert.assertFalse(set.contains(withArg("c")));
+
+        AnnotationMirrorSet emptyCopy = AnnotationMirrorSet.emptySet().deepCopy();
+        Assert.assertTrue(emptyCopy.add(withArg("a")));
+        Assert.assertTrue(AnnotationMirrorSet.emptySet().isEmpty());
+    }
+}
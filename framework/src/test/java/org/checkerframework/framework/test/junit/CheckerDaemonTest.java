@@ -0,0 +1,232 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.util.CheckerDaemon;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CheckerDaemonTest {
+
+    /**
+     * Starts a daemon in a new thread and waits until it has written its port file. The daemon
+     * exits after it has been idle for two seconds.
+     *
+     * @param portFile the port file for the daemon to write
+     * @return the thread that runs the daemon
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static Thread startDaemon(Path portFile) throws InterruptedException {
+        Thread daemon =
+                new Thread(
+                        () -> {
+                            try {
+                                CheckerDaemon.serve(portFile, 2000);
+                            } catch (IOException e) {
+                                throw new Error(e);
+                            }
+                        });
+        daemon.start();
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (!Files.exists(portFile)) {
+            Assert.assertTrue(daemon.isAlive() && System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+        return daemon;
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        Path portFile = dir.resolve("test.port");
+        List<String> version = Collections.singletonList("-version");
+        Thread daemon = startDaemon(portFile);
+        PrintStream savedErr = System.err;
+        try {
+            List<String> lines = Files.readAllLines(portFile, StandardCharsets.UTF_8);
+            int port = Integer.parseInt(lines.get(0));
+
+            Assert.assertEquals(
+                    Integer.valueOf(0), CheckerDaemon.sendRequest(portFile.toFile(), version));
+            // javac reports a missing source file as a command-line error.
+            System.setErr(new PrintStream(new ByteArrayOutputStream(), true, "UTF-8"));
+            Assert.assertEquals(
+                    Integer.valueOf(2),
+                    CheckerDaemon.sendRequest(
+                            portFile.toFile(), Collections.singletonList("NoSuchFile.java")));
+            System.setErr(savedErr);
+
+            // A request with a wrong token is rejected.
+            File wrongTokenFile = dir.resolve("wrong.port").toFile();
+            char[] wrongToken = new char[lines.get(1).length()];
+            Arrays.fill(wrongToken, '0');
+            Files.write(
+                    wrongTokenFile.toPath(),
+                    Arrays.asList(lines.get(0), new String(wrongToken)),
+                    StandardCharsets.UTF_8);
+            Assert.assertNull(CheckerDaemon.sendRequest(wrongTokenFile, version));
+
+            // Malformed requests with the right token do not stop the daemon.
+            byte[] token = new byte[lines.get(1).length() / 2];
+            for (int i = 0; i < token.length; i++) {
+                token[i] = (byte) Integer.parseInt(lines.get(1).substring(2 * i, 2 * i + 2), 16);
+            }
+            for (int[] malformed : new int[][] {{-1}, {1, -1}, {1, Integer.MAX_VALUE}}) {
+                try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                    DataOutputStream out = new DataOutputStream(s.getOutputStream());
+                    out.write(token);
+                    for (int i : malformed) {
+                        out.writeInt(i);
+                    }
+                    out.flush();
+                    // The daemon closes the connection without a reply.
+                    Assert.assertEquals(-1, new DataInputStream(s.getInputStream()).read());
+                }
+            }
+            // A short token does not stop the daemon either.
+            try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                s.getOutputStream().write(new byte[] {1, 2, 3});
+            }
+
+            Assert.assertEquals(
+                    Integer.valueOf(0), CheckerDaemon.sendRequest(portFile.toFile(), version));
+        } finally {
+            System.setErr(savedErr);
+            daemon.join();
+        }
+        // The daemon removes its port file when it exits.
+        Assert.assertFalse(Files.exists(portFile));
+        Files.delete(dir.resolve("wrong.port"));
+        Files.delete(dir);
+    }
+
+    /**
+     * Tests that the daemon issues the same messages as a new JVM, also when it runs the same
+     * compilation again. Static state of the Checker Framework, such as the numbering of captured
+     * type variables in messages, must not carry over from one compilation to the next.
+     */
+    @Test
+    public void sameOutputAsNewJvm() throws Exception {
+        Path dir = Files.createTempDirectory("checker-daemon-test");
+        Path source = dir.resolve("Capture.java");
+        Files.write(
+                source,
+                Arrays.asList(
+                        "import java.util.List;",
+                        "import org.checkerframework.common.value.qual.IntVal;",
+                        "class Capture {",
+                        "    void m(List<? extends @IntVal(1) Integer> a,",
+                        "            List<? super Integer> b) {",
+                        "        @IntVal(2) Integer i = a.get(0);",
+                        "        @IntVal(2) Integer j = b.get(0);",
+                        "        @IntVal(2) Integer k = a.get(1);",
+                        "    }",
+                        "}"),
+                StandardCharsets.UTF_8);
+        List<String> javacArguments =
+                Arrays.asList(
+                        "-proc:only",
+                        "-classpath",
+                        System.getProperty("java.class.path"),
+                        "-processor",
+                        ValueChecker.class.getName(),
+                        source.toString());
+
+        String expected = compileInNewJvm(javacArguments);
+        Assert.assertTrue(expected, expected.contains("incompatible types in assignment"));
+
+        Path portFile = dir.resolve("test.port");
+        Thread daemon = startDaemon(portFile);
+        try {
+            Assert.assertEquals(expected, compileInDaemon(portFile, javacArguments));
+            Assert.assertEquals(expected, compileInDaemon(portFile, javacArguments));
+        } finally {
+            daemon.join();
+        }
+        Files.delete(source);
+        Files.delete(dir);
+    }
+
+    /**
+     * Runs javac in a new JVM, with the same JVM options as this one.
+     *
+     * @param javacArguments the arguments to javac
+     * @return the output of javac
+     * @throws Exception if javac cannot be run
+     */
+    private static String compileInNewJvm(List<String> javacArguments) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!arg.startsWith("-agentlib:jdwp")) {
+                command.add(arg);
+            }
+        }
+        command.add("-classpath");
+        command.add(System.getProperty("java.class.path"));
+        command.add("com.sun.tools.javac.Main");
+        command.addAll(javacArguments);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = process.getInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                output.write(buffer, 0, n);
+            }
+        }
+        process.waitFor();
+        StringBuilder result = new StringBuilder();
+        for (String line : new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            // Ignore messages of the JVM, such as "Picked up JAVA_TOOL_OPTIONS".
+            if (!line.startsWith("Picked up ")) {
+                result.append(line).append('\n');
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Runs javac in a daemon.
+     *
+     * @param portFile the port file of the daemon
+     * @param javacArguments the arguments to javac
+     * @return the output of javac
+     * @throws Exception if the daemon cannot be used
+     */
+    private static String compileInDaemon(Path portFile, List<String> javacArguments)
+            throws Exception {
+        PrintStream savedOut = System.out;
+        PrintStream savedErr = System.err;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream captured = new PrintStream(output, true, "UTF-8");
+        System.setOut(captured);
+        System.setErr(captured);
+        try {
+            Assert.assertNotNull(CheckerDaemon.sendRequest(portFile.toFile(), javacArguments));
+        } finally {
+            System.setOut(savedOut);
+            System.setErr(savedErr);
+        }
+        String result = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        return result.endsWith("\n") || result.isEmpty() ? result : result + "\n";
+    }
+}
@@ -0,0 +1,62 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.framework.flow.CopyOnWriteHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class CopyOnWriteHashMapTest {
+
+    @Test
+    public void copiesAreIndependent() {
+        CopyOnWriteHashMap<String, Integer> original = new CopyOnWriteHashMap<>();
+        original.put("a", 1);
+        original.put("b", 2);
+        CopyOnWriteHashMap<String, Integer> copy = new CopyOnWriteHashMap<>(original);
+        Assert.assertTrue(copy.sharesContentsWith(original));
+        Assert.assertEquals(original, copy);
+
+        copy.put("c", 3);
+        Assert.assertFalse(copy.sharesContentsWith(original));
+        Assert.assertEquals(2, original.size());
+        Assert.assertEquals(3, copy.size());
+
+        original.remove("a");
+        Assert.assertNull(original.get("a"));
+        Assert.assertEquals(Integer.valueOf(1), copy.get("a"));
+    }
+
+    @Test
+    public void modifyThroughIteratorOfSharedMap() {
+        CopyOnWriteHashMap<String, Integer> original = new CopyOnWriteHashMap<>();
+        original.put("a", 1);
+        original.put("b", 2);
+        original.put("c", 3);
+        CopyOnWriteHashMap<String, Integer> copy = new CopyOnWriteHashMap<>(original);
+
+        Iterator<Map.Entry<String, Integer>> it = copy.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> e = it.next();
+            if (e.getKey().equals("a")) {
+                it.remove();
+            } else {
+                e.setValue(e.getValue() * 10);
+            }
+        }
+
+        Map<String, Integer> expectedCopy = new HashMap<>();
+        expectedCopy.put("b", 20);
+        expectedCopy.put("c", 30);
+        Assert.assertEquals(expectedCopy, copy);
+        Assert.assertEquals(3, original.size());
+        Assert.assertEquals(Integer.valueOf(2), original.get("b"));
+
+        copy.keySet().removeIf(k -> k.equals("b"));
+        original.clear();
+        Assert.assertEquals(1, copy.size());
+        Assert.assertTrue(original.isEmpty());
+    }
+}
@@ -0,0 +1,24 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.util.List;
+
+/** Tests the {@code -AdataflowBudget} command-line option with the Constant Value Checker. */
+public class DataflowBudgetTest extends CheckerFrameworkPerDirectoryTest {
+
+    /**
+     * @param testFiles the files containing test code, which will be type-checked
+     */
+    public DataflowBudgetTest(List<File> testFiles) {
+        super(testFiles, ValueChecker.class, "value", "-AdataflowBudget=10");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"dataflow-budget"};
+    }
+}
@@ -0,0 +1,165 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.framework.testchecker.lubglb.quals.LubglbA;
+import org.checkerframework.framework.testchecker.lubglb.quals.LubglbB;
+import org.checkerframework.framework.testchecker.lubglb.quals.LubglbC;
+import org.checkerframework.framework.testchecker.lubglb.quals.LubglbD;
+import org.checkerframework.framework.testchecker.lubglb.quals.LubglbE;
+import org.checkerframework.framework.testchecker.lubglb.quals.LubglbF;
+import org.checkerframework.framework.testchecker.lubglb.quals.PolyLubglb;
+import org.checkerframework.framework.testchecker.util.PatternA;
+import org.checkerframework.framework.testchecker.util.PatternAB;
+import org.checkerframework.framework.testchecker.util.PatternAC;
+import org.checkerframework.framework.testchecker.util.PatternB;
+import org.checkerframework.framework.testchecker.util.PatternBC;
+import org.checkerframework.framework.testchecker.util.PatternBottomFull;
+import org.checkerframework.framework.testchecker.util.PatternC;
+import org.checkerframework.framework.testchecker.util.PatternUnknown;
+import org.checkerframework.framework.testchecker.util.SubQual;
+import org.checkerframework.framework.testchecker.util.SuperQual;
+import org.checkerframework.framework.util.DefaultQualifierKindHierarchy;
+import org.checkerframework.framework.util.QualifierKind;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Tests that the indexed lub, glb, and subtype tables of {@link DefaultQualifierKindHierarchy}
+ * give the same results as the maps that they are built from, for a hierarchy with several tops
+ * and bottoms and for qualifier kinds of another hierarchy.
+ */
+public class DefaultQualifierKindHierarchyTest {
+
+    /** The qualifiers of three type hierarchies. */
+    private static final List<Class<? extends Annotation>> QUALIFIERS =
+            Arrays.asList(
+                    LubglbA.class,
+                    LubglbB.class,
+                    LubglbC.class,
+                    LubglbD.class,
+                    LubglbE.class,
+                    LubglbF.class,
+                    PolyLubglb.class,
+                    PatternUnknown.class,
+                    PatternAB.class,
+                    PatternAC.class,
+                    PatternBC.class,
+                    PatternA.class,
+                    PatternB.class,
+                    PatternC.class,
+                    PatternBottomFull.class,
+                    SuperQual.class,
+                    SubQual.class);
+
+    /** A hierarchy that keeps the lub and glb maps that its tables are built from. */
+    private static class MapRecordingHierarchy extends DefaultQualifierKindHierarchy {
+
+        /** The result of {@link #createLubsMap}. */
+        Map<QualifierKind, Map<QualifierKind, QualifierKind>> lubsMap;
+
+        /** The result of {@link #createGlbsMap}. */
+        Map<QualifierKind, Map<QualifierKind, QualifierKind>> glbsMap;
+
+        /** Creates a hierarchy of {@link #QUALIFIERS}. */
+        MapRecordingHierarchy() {
+            super(QUALIFIERS);
+        }
+
+        @Override
+        protected Map<QualifierKind, Map<QualifierKind, QualifierKind>> createLubsMap() {
+            lubsMap = super.createLubsMap();
+            return lubsMap;
+        }
+
+        @Override
+        protected Map<QualifierKind, Map<QualifierKind, QualifierKind>> createGlbsMap() {
+            glbsMap = super.createGlbsMap();
+            return glbsMap;
+        }
+    }
+
+    /**
+     * Returns the result of a computation, or the class of the exception that it throws.
+     *
+     * @param computation a computation
+     * @return the result of {@code computation}, or the class of the exception that it throws
+     */
+    private static Object outcome(Supplier<?> computation) {
+        try {
+            return computation.get();
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    /**
+     * Returns the qualifier kinds to query: those of {@code hierarchy} and those of another
+     * hierarchy of the same qualifiers.
+     *
+     * @param hierarchy a hierarchy
+     * @return the qualifier kinds of {@code hierarchy} and of another hierarchy
+     */
+    private static List<QualifierKind> kindsToQuery(DefaultQualifierKindHierarchy hierarchy) {
+        List<QualifierKind> kinds = new ArrayList<>(hierarchy.allQualifierKinds());
+        kinds.addAll(new DefaultQualifierKindHierarchy(QUALIFIERS).allQualifierKinds());
+        return kinds;
+    }
+
+    @Test
+    public void severalTopsAndBottoms() {
+        DefaultQualifierKindHierarchy hierarchy = new DefaultQualifierKindHierarchy(QUALIFIERS);
+        Assert.assertEquals(3, hierarchy.getTops().size());
+        Assert.assertEquals(3, hierarchy.getBottoms().size());
+        QualifierKind a = hierarchy.getQualifierKind(PatternA.class.getCanonicalName());
+        QualifierKind b = hierarchy.getQualifierKind(PatternB.class.getCanonicalName());
+        QualifierKind ab = hierarchy.getQualifierKind(PatternAB.class.getCanonicalName());
+        QualifierKind bc = hierarchy.getQualifierKind(PatternBC.class.getCanonicalName());
+        QualifierKind sub = hierarchy.getQualifierKind(SubQual.class.getCanonicalName());
+        Assert.assertSame(ab, hierarchy.leastUpperBound(a, b));
+        Assert.assertSame(b, hierarchy.greatestLowerBound(ab, bc));
+        Assert.assertNull(hierarchy.leastUpperBound(a, sub));
+        Assert.assertNull(hierarchy.greatestLowerBound(sub, b));
+        Assert.assertTrue(a.isSubtypeOf(ab));
+        Assert.assertFalse(ab.isSubtypeOf(a));
+        Assert.assertFalse(a.isSubtypeOf(sub));
+    }
+
+    @Test
+    public void lubsAndGlbsMatchMaps() {
+        MapRecordingHierarchy hierarchy = new MapRecordingHierarchy();
+        List<QualifierKind> kinds = kindsToQuery(hierarchy);
+        for (QualifierKind q1 : kinds) {
+            for (QualifierKind q2 : kinds) {
+                String pair = q1 + ", " + q2;
+                Assert.assertEquals(
+                        pair,
+                        outcome(() -> hierarchy.lubsMap.get(q1).get(q2)),
+                        outcome(() -> hierarchy.leastUpperBound(q1, q2)));
+                Assert.assertEquals(
+                        pair,
+                        outcome(() -> hierarchy.glbsMap.get(q1).get(q2)),
+                        outcome(() -> hierarchy.greatestLowerBound(q1, q2)));
+            }
+        }
+    }
+
+    @Test
+    public void subtypingMatchesStrictSuperTypes() {
+        DefaultQualifierKindHierarchy hierarchy = new DefaultQualifierKindHierarchy(QUALIFIERS);
+        List<QualifierKind> kinds = kindsToQuery(hierarchy);
+        for (QualifierKind q1 : hierarchy.allQualifierKinds()) {
+            for (QualifierKind q2 : kinds) {
+                Assert.assertEquals(
+                        q1 + " <: " + q2,
+                        q1 == q2 || q1.getStrictSuperTypes().contains(q2),
+                        q1.isSubtypeOf(q2));
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CompilationResult;
+import org.checkerframework.framework.test.TestConfiguration;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TypecheckExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Tests the {@code -AdiagnosticsJsonLines}, {@code -AdiagnosticsPerFileLimit}, and {@code
+ * -AdiagnosticsJsonLinesOnly} command-line options, by compiling the files in {@code
+ * tests/diagnostics-json-lines} and reading the file that they write.
+ */
+public class DiagnosticsJsonLinesTest {
+
+    /** The directory of the test files. */
+    private static final String TEST_DIR = "tests/diagnostics-json-lines";
+
+    /**
+     * Runs the Value Checker on a test file.
+     *
+     * @param testFile the name of a file in {@link #TEST_DIR}
+     * @param options the options to pass to javac
+     * @return the result of the compilation
+     */
+    private static CompilationResult compile(String testFile, String... options) {
+        TestConfiguration config =
+                TestConfigurationBuilder.buildDefaultConfiguration(
+                        TEST_DIR,
+                        new File(TEST_DIR, testFile),
+                        ValueChecker.class,
+                        Arrays.asList(options),
+                        false);
+        return new TypecheckExecutor().compile(config);
+    }
+
+    /**
+     * Returns the messages of the diagnostics of a compilation that have the given kind.
+     *
+     * @param result the result of a compilation
+     * @param kind a kind of diagnostic
+     * @return the messages of the diagnostics of {@code result} whose kind is {@code kind}
+     */
+    private static List<String> messages(CompilationResult result, Diagnostic.Kind kind) {
+        List<String> messages = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : result.getDiagnostics()) {
+            if (diagnostic.getKind() == kind) {
+                messages.add(diagnostic.getMessage(Locale.ROOT));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Returns the lines of the given file that contain the given string.
+     *
+     * @param file a file
+     * @param s a string
+     * @return the lines of {@code file} that contain {@code s}
+     * @throws IOException if the file cannot be read
+     */
+    private static List<String> linesContaining(File file, String s) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (line.contains(s)) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void emptyCompilationRewritesFile() throws IOException {
+        File file = File.createTempFile("diagnostics", ".jsonl");
+        try {
+            Files.write(file.toPath(), Collections.singletonList("stale"), StandardCharsets.UTF_8);
+            CompilationResult result =
+                    compile("NoErrors.java", "-AdiagnosticsJsonLines=" + file.getPath());
+            Assert.assertTrue(result.getDiagnostics().toString(), result.compiledWithoutError());
+            Assert.assertEquals(0, file.length());
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void perFileLimit() throws IOException {
+        File file = File.createTempFile("diagnostics", ".jsonl");
+        try {
+            CompilationResult result =
+                    compile(
+                            "TwoErrors.java",
+                            "-AdiagnosticsJsonLines=" + file.getPath(),
+                            "-AdiagnosticsPerFileLimit=1");
+            Assert.assertFalse(result.compiledWithoutError());
+            // Both errors are reported to the compiler.
+            Assert.assertEquals(2, messages(result, Diagnostic.Kind.ERROR).size());
+            Assert.assertEquals(1, linesContaining(file, "\"kind\":\"ERROR\"").size());
+            Assert.assertEquals(1, linesContaining(file, "\"key\":\"diagnostics.limit\"").size());
+            Assert.assertEquals(2, Files.readAllLines(file.toPath()).size());
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void onlyOutputFailsCompilation() throws IOException {
+        File file = File.createTempFile("diagnostics", ".jsonl");
+        try {
+            CompilationResult result =
+                    compile(
+                            "TwoErrors.java",
+                            "-AdiagnosticsJsonLines=" + file.getPath(),
+                            "-AdiagnosticsJsonLinesOnly");
+            Assert.assertFalse(result.compiledWithoutError());
+            List<String> errors = messages(result, Diagnostic.Kind.ERROR);
+            Assert.assertEquals(errors.toString(), 1, errors.size());
+            Assert.assertTrue(
+                    errors.get(0), errors.get(0).contains("2 errors and 0 warnings were written"));
+            List<String> lines = linesContaining(file, "\"kind\":\"ERROR\"");
+            Assert.assertEquals(2, lines.size());
+            Assert.assertTrue(lines.get(0), lines.get(0).contains("TwoErrors.java\",\"line\":8,"));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void nonPositiveLimitIsRejected() throws IOException {
+        File file = File.createTempFile("diagnostics", ".jsonl");
+        try {
+            CompilationResult result =
+                    compile(
+                            "NoErrors.java",
+                            "-AdiagnosticsJsonLines=" + file.getPath(),
+                            "-AdiagnosticsPerFileLimit=0");
+            Assert.assertFalse(result.compiledWithoutError());
+            Assert.assertTrue(
+                    result.getDiagnostics().toString(),
+                    String.join("\n", messages(result, Diagnostic.Kind.ERROR))
+                            .contains("diagnosticsPerFileLimit must be positive"));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+}
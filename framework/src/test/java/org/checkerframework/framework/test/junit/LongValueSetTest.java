@@ -0,0 +1,128 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.common.value.util.LongValueSet;
+import org.checkerframework.common.value.util.Range;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/** This class tests the LongValueSet class, independent of the Value Checker. */
+public class LongValueSetTest {
+
+    /** Values around the bounds of the integral types. */
+    long[] values = {
+        Long.MIN_VALUE,
+        Integer.MIN_VALUE - 1L,
+        Integer.MIN_VALUE,
+        Short.MIN_VALUE,
+        Byte.MIN_VALUE,
+        -33,
+        -1,
+        0,
+        1,
+        31,
+        32,
+        33,
+        63,
+        64,
+        Byte.MAX_VALUE,
+        Short.MAX_VALUE,
+        Character.MAX_VALUE,
+        Integer.MAX_VALUE,
+        Integer.MAX_VALUE + 1L,
+        Long.MAX_VALUE
+    };
+
+    @Test
+    public void testCreate() {
+        LongValueSet set = LongValueSet.of(3, 1, 2, 3, 1);
+        Assert.assertEquals(3, set.size());
+        Assert.assertEquals(1, set.min());
+        Assert.assertEquals(3, set.max());
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), set.toList());
+        Assert.assertEquals(set, LongValueSet.create(Arrays.asList(2, 3, 1)));
+        Assert.assertTrue(LongValueSet.of().isEmpty());
+        Assert.assertEquals(Range.NOTHING, LongValueSet.EMPTY.toRange());
+        Assert.assertEquals(Range.create(1, 3), set.toRange());
+    }
+
+    @Test
+    public void testSetOperations() {
+        LongValueSet a = LongValueSet.of(1, 3, 5, 7);
+        LongValueSet b = LongValueSet.of(3, 4, 5);
+        Assert.assertEquals(LongValueSet.of(1, 3, 4, 5, 7), a.union(b));
+        Assert.assertEquals(LongValueSet.of(3, 5), a.intersect(b));
+        Assert.assertEquals(LongValueSet.EMPTY, a.intersect(LongValueSet.of(2, 4)));
+        Assert.assertSame(a, a.union(LongValueSet.of(3)));
+        Assert.assertSame(a, a.union(LongValueSet.EMPTY));
+        Assert.assertEquals(LongValueSet.of(1, 5, 7), a.without(3));
+        Assert.assertSame(a, a.without(4));
+        Assert.assertTrue(a.contains(7));
+        Assert.assertFalse(a.contains(6));
+    }
+
+    @Test
+    public void testCombine() {
+        LongValueSet a = LongValueSet.of(1, 2);
+        LongValueSet b = LongValueSet.of(10, 20);
+        Assert.assertEquals(LongValueSet.of(11, 12, 21, 22), a.combine(b, (l, r) -> l + r));
+        Assert.assertEquals(LongValueSet.of(0, 1, 2), b.combine(b, (l, r) -> l / r));
+        Assert.assertEquals(LongValueSet.EMPTY, a.combine(LongValueSet.EMPTY, (l, r) -> l + r));
+    }
+
+    /** Tests that combine detects that the number of pairs does not fit in an int. */
+    @Test(expected = ArithmeticException.class)
+    public void testCombineOverflow() {
+        long[] many = new long[1 << 16];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = i;
+        }
+        LongValueSet large = LongValueSet.of(many);
+        large.combine(large, (l, r) -> l + r);
+    }
+
+    /** Tests that the casts agree with the Java casts. */
+    @Test
+    public void testCasts() {
+        for (long value : values) {
+            LongValueSet set = LongValueSet.of(value);
+            Assert.assertEquals(LongValueSet.of((int) value), set.intValues());
+            Assert.assertEquals(LongValueSet.of((short) value), set.shortValues());
+            Assert.assertEquals(LongValueSet.of((byte) value), set.byteValues());
+        }
+        LongValueSet all = LongValueSet.of(values);
+        Assert.assertTrue(all.intValues().max() <= Integer.MAX_VALUE);
+        Assert.assertTrue(all.intValues().min() >= Integer.MIN_VALUE);
+    }
+
+    /** Tests that int arithmetic on longs, followed by a cast to int, agrees with Java. */
+    @Test
+    public void testIntArithmetic() {
+        for (long l : values) {
+            int left = (int) l;
+            for (long r : values) {
+                int right = (int) r;
+                LongValueSet lefts = LongValueSet.of(left);
+                LongValueSet rights = LongValueSet.of(right);
+                Assert.assertEquals(
+                        LongValueSet.of(left * right),
+                        lefts.combine(rights, (x, y) -> x * y).intValues());
+                Assert.assertEquals(
+                        LongValueSet.of(left - right),
+                        lefts.combine(rights, (x, y) -> x - y).intValues());
+                Assert.assertEquals(
+                        LongValueSet.of(left << right),
+                        lefts.combine(rights, (x, y) -> (int) x << y).intValues());
+                Assert.assertEquals(
+                        LongValueSet.of(left >>> right),
+                        lefts.combine(rights, (x, y) -> (int) x >>> y).intValues());
+                if (right != 0) {
+                    Assert.assertEquals(
+                            LongValueSet.of(left / right),
+                            lefts.combine(rights, (x, y) -> x / y).intValues());
+                }
+            }
+        }
+    }
+}
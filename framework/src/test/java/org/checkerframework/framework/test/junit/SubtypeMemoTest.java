@@ -0,0 +1,32 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Tests that memoized subtype checks give the same results as unmemoized ones, with a small memo
+ * of the kind selected by {@code -AatfCacheKind}.
+ */
+public class SubtypeMemoTest extends CheckerFrameworkPerDirectoryTest {
+
+    /**
+     * @param testFiles the files containing test code, which will be type-checked
+     */
+    public SubtypeMemoTest(List<File> testFiles) {
+        super(
+                testFiles,
+                ValueChecker.class,
+                "value",
+                "-AatfCacheKind=tinylfu",
+                "-AatfCacheSize=4");
+    }
+
+    @Parameters
+    public static String[] getTestDirs() {
+        return new String[] {"subtype-memo"};
+    }
+}
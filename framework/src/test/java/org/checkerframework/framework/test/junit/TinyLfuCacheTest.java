@@ -0,0 +1,151 @@
+package org.checkerframework.framework.test.junit;
+
+import org.checkerframework.framework.util.TinyLfuCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void capacityIsNeverExceeded() {
+        for (int capacity : new int[] {1, 2, 100, 1000, 5000}) {
+            TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(capacity);
+            for (int i = 0; i < 10 * capacity; i++) {
+                cache.put(i, i);
+                if (i % 3 == 0) {
+                    cache.get(i / 2);
+                }
+                Assert.assertTrue(cache.size() <= capacity);
+            }
+            Assert.assertTrue(cache.size() > 0);
+        }
+    }
+
+    @Test
+    public void hotKeySurvivesScan() {
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(100);
+        cache.put("hot", 0);
+        // Push "hot" out of the window into the main space, then make it hot.
+        cache.put("warm", 1);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(Integer.valueOf(0), cache.get("hot"));
+        }
+        for (int i = 0; i < 10000; i++) {
+            cache.put("cold" + i, i);
+        }
+        Assert.assertEquals(Integer.valueOf(0), cache.get("hot"));
+        Assert.assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    public void nullValues() {
+        TinyLfuCache<String, Integer> cache = new TinyLfuCache<>(10);
+        Assert.assertNull(cache.put("a", null));
+        Assert.assertTrue(cache.containsKey("a"));
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(1, cache.size());
+        Map.Entry<String, Integer> entry = cache.entrySet().iterator().next();
+        Assert.assertEquals("a", entry.getKey());
+        Assert.assertNull(entry.getValue());
+
+        Assert.assertNull(cache.put("a", 1));
+        Assert.assertEquals(Integer.valueOf(1), cache.put("a", null));
+        Assert.assertNull(cache.remove("a"));
+        Assert.assertFalse(cache.containsKey("a"));
+        Assert.assertNull(cache.get(null));
+        Assert.assertFalse(cache.containsKey(null));
+    }
+
+    @Test
+    public void removeAndClear() {
+        TinyLfuCache<Integer, String> cache = new TinyLfuCache<>(1000);
+        for (int i = 0; i < 500; i++) {
+            cache.put(i, "v" + i);
+        }
+        Assert.assertEquals(500, cache.size());
+        Assert.assertEquals("v7", cache.remove(7));
+        Assert.assertNull(cache.remove(7));
+        Assert.assertFalse(cache.containsKey(7));
+        Assert.assertEquals(499, cache.size());
+        Assert.assertEquals("v8", cache.get(8));
+
+        cache.clear();
+        Assert.assertTrue(cache.isEmpty());
+        Assert.assertNull(cache.get(8));
+        cache.put(8, "again");
+        Assert.assertEquals("again", cache.get(8));
+    }
+
+    @Test
+    public void statistics() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        Assert.assertTrue(cache.getStatistics().startsWith("0 hits, 0 misses"));
+        cache.put("a", "A");
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.containsKey("a");
+        String statistics = cache.getStatistics();
+        Assert.assertTrue(statistics, statistics.startsWith("2 hits, 1 misses"));
+        Assert.assertTrue(statistics, statistics.endsWith("0 evictions, 0 rejected admissions"));
+
+        // A cache of capacity 1 has no main space, so every entry that leaves the window is
+        // rejected.
+        TinyLfuCache<String, String> tiny = new TinyLfuCache<>(1);
+        tiny.put("a", "A");
+        tiny.put("b", "B");
+        tiny.put("c", "C");
+        Assert.assertEquals(1, tiny.size());
+        Assert.assertEquals("C", tiny.get("c"));
+        statistics = tiny.getStatistics();
+        Assert.assertTrue(statistics, statistics.endsWith("2 evictions, 2 rejected admissions"));
+    }
+
+    @Test
+    public void concurrentPutAndGet() throws Exception {
+        int capacity = 2000;
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(capacity);
+        int numThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < numThreads; t++) {
+                int seed = t;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < 50000; i++) {
+                                        int key = (i * 31 + seed * 7919) % 10000;
+                                        if (i % 2 == 0) {
+                                            cache.put(key, -key);
+                                        } else {
+                                            Integer value = cache.get(key);
+                                            if (value != null && value != -key) {
+                                                throw new AssertionError(key + " -> " + value);
+                                            }
+                                        }
+                                    }
+                                    return null;
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+        Assert.assertTrue(cache.size() <= capacity);
+        for (Map.Entry<Integer, Integer> entry : cache.entrySet()) {
+            Assert.assertEquals(Integer.valueOf(-entry.getKey()), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+import org.checkerframework.common.value.qual.*;
+
+// Run with -AdataflowBudget=10.
+public class DataflowBudget {
+
+    void withinBudget() {
+        int x = 1;
+        // The analysis of this method stays within its budget, so x is refined.
+        @IntVal(1) int y = x;
+    }
+
+    // :: warning: (dataflow.budget.exceeded)
+    void loop() {
+        int x = 0;
+        int z = 5;
+        while (x < 1000) {
+            x = x + 1;
+        }
+        // The analysis exceeded its budget and discarded its refined types, so z has its declared
+        // type.
+        // :: error: (assignment.type.incompatible)
+        @IntVal(5) int w = z;
+        // The result is still sound: an incorrect assignment is reported.
+        // :: error: (assignment.type.incompatible)
+        @IntVal(1) int u = 2;
+    }
+}
@@ -0,0 +1,10 @@
+// Used by DiagnosticsJsonLinesTest, which checks the -AdiagnosticsJsonLines file instead of
+// expected diagnostics in this file.
+
+import org.checkerframework.common.value.qual.IntVal;
+
+public class NoErrors {
+    void assign() {
+        @IntVal(1) int a = 1;
+    }
+}
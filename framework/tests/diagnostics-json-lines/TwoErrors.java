@@ -0,0 +1,11 @@
+// Used by DiagnosticsJsonLinesTest, which checks the -AdiagnosticsJsonLines file instead of
+// expected diagnostics in this file.
+
+import org.checkerframework.common.value.qual.IntVal;
+
+public class TwoErrors {
+    void assign() {
+        @IntVal(1) int a = 2;
+        @IntVal(1) int b = 3;
+    }
+}
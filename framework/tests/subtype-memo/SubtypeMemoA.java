@@ -0,0 +1,32 @@
+import org.checkerframework.common.value.qual.*;
+
+import java.util.List;
+
+// Run with -AatfCacheKind=tinylfu -AatfCacheSize=4, together with SubtypeMemoB.java.
+// Each check is repeated, so that the second one may use a memoized result; both must report the
+// same errors.
+public class SubtypeMemoA {
+
+    void typeArguments(List<@IntVal(1) Integer> one, List<@IntVal(2) Integer> two) {
+        List<@IntVal(1) Integer> a = one;
+        // :: error: (assignment.type.incompatible)
+        List<@IntVal(1) Integer> b = two;
+        // Type arguments are invariant.
+        // :: error: (assignment.type.incompatible)
+        List<@IntVal({1, 2}) Integer> c = one;
+        List<@IntVal(1) Integer> d = one;
+        // :: error: (assignment.type.incompatible)
+        List<@IntVal(1) Integer> e = two;
+        // :: error: (assignment.type.incompatible)
+        List<@IntVal({1, 2}) Integer> f = one;
+    }
+
+    void primitives(@IntVal(1) int one, @IntVal({1, 2}) int oneOrTwo) {
+        @IntVal({1, 2}) int a = one;
+        // :: error: (assignment.type.incompatible)
+        @IntVal(1) int b = oneOrTwo;
+        @IntVal({1, 2}) int c = one;
+        // :: error: (assignment.type.incompatible)
+        @IntVal(1) int d = oneOrTwo;
+    }
+}
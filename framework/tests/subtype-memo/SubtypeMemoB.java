@@ -0,0 +1,23 @@
+import org.checkerframework.common.value.qual.*;
+
+import java.util.List;
+
+// Compiled after SubtypeMemoA.java: the type factory discards the memoized subtype checks when it
+// moves to this compilation unit, and the same checks must report the same errors again.
+public class SubtypeMemoB {
+
+    void typeArguments(List<@IntVal(1) Integer> one, List<@IntVal(2) Integer> two) {
+        // :: error: (assignment.type.incompatible)
+        List<@IntVal(1) Integer> b = two;
+        List<@IntVal(1) Integer> a = one;
+        // :: error: (assignment.type.incompatible)
+        List<@IntVal(2) Integer> c = one;
+        List<@IntVal(2) Integer> d = two;
+    }
+
+    void primitives(@IntVal(1) int one, @IntVal({1, 2}) int oneOrTwo) {
+        // :: error: (assignment.type.incompatible)
+        @IntVal(1) int b = oneOrTwo;
+        @IntVal({1, 2}) int a = one;
+    }
+}
@@ -0,0 +1,31 @@
+import org.checkerframework.common.value.qual.*;
+
+// Run with -AmaxValues=20.
+public class MaxValues {
+
+    void twelveValues(@IntVal({0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}) int x) {
+        // Twelve values are within the limit, so x is not widened to an @IntRange.
+        @IntVal({0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}) int y = x;
+    }
+
+    void twentySums(@IntVal({0, 1, 2, 3}) int a, @IntVal({0, 10, 20, 30, 40}) int b) {
+        @IntVal({0, 1, 2, 3, 10, 11, 12, 13, 20, 21, 22, 23, 30, 31, 32, 33, 40, 41, 42, 43}) int c = a + b;
+    }
+
+    void twentyFiveSums(@IntVal({0, 1, 2, 3, 4}) int a, @IntVal({0, 10, 20, 30, 40}) int b) {
+        @IntRange(from = 0, to = 44) int c = a + b;
+        // :: error: (assignment.type.incompatible)
+        @IntVal({0, 1, 2, 3, 4}) int d = a + b;
+    }
+
+    void intOverflow(@IntVal({Integer.MAX_VALUE, 1}) int a, @IntVal({1, 32}) int b) {
+        @IntVal({Integer.MIN_VALUE, Integer.MIN_VALUE + 31, 2, 33}) int c = a + b;
+        // An int is shifted by the low five bits of the shift distance only.
+        @IntVal({-2, 1, 2, Integer.MAX_VALUE}) int d = a << b;
+    }
+
+    void tooManyValues() {
+        // :: warning: (too.many.values.given.int)
+        @IntVal({0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20}) int a = 0;
+    }
+}
@@ -8,12 +8,15 @@ import org.checkerframework.checker.nullness.qual.PolyNull;
 import org.checkerframework.common.returnsreceiver.qual.This;
 import org.plumelib.util.DeepCopyable;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NavigableSet;
-import java.util.TreeSet;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
 
 import javax.lang.model.element.AnnotationMirror;
 
@@ -30,16 +33,35 @@ import javax.lang.model.element.AnnotationMirror;
  *
  * <p>AnnotationMirror is an interface and not all implementing classes provide a correct equals
  * method; therefore, the existing implementations of Set cannot be used.
+ *
+ * <p>The elements are stored in an array that is sorted by {@link
+ * AnnotationUtils#compareAnnotationMirrors}. Almost all sets hold one qualifier per type hierarchy,
+ * that is, very few elements, so an array is both smaller and faster than a balanced tree. Lookups
+ * first scan for an identical (==) element, which is the common case because type factories reuse
+ * their AnnotationMirrors, and only then compare element values.
  */
-// TODO: Could extend AbstractSet to eliminate the need to implement a few methods.
 public class AnnotationMirrorSet
         implements NavigableSet<@KeyFor("this") AnnotationMirror>,
                 DeepCopyable<AnnotationMirrorSet> {
 
-    /** Backing set. */
-    // Not final because makeUnmodifiable() can reassign it.
-    private NavigableSet<@KeyFor("this") AnnotationMirror> shadowSet =
-            new TreeSet<>(AnnotationUtils::compareAnnotationMirrors);
+    /** The order of the elements of every AnnotationMirrorSet. */
+    private static final Comparator<AnnotationMirror> ORDER =
+            AnnotationUtils::compareAnnotationMirrors;
+
+    /** An empty array of elements, shared by all sets that have never held an element. */
+    private static final AnnotationMirror[] NO_ELEMENTS = new AnnotationMirror[0];
+
+    /** The elements, sorted by {@link #ORDER}; only the first {@link #size} are valid. */
+    private @KeyFor("this") AnnotationMirror[] elements = NO_ELEMENTS;
+
+    /** The number of elements in this set. */
+    private int size = 0;
+
+    /** True if this set is unmodifiable. */
+    private boolean unmodifiable = false;
+
+    /** The number of modifications, used to detect concurrent modification by iterators. */
+    private int modCount = 0;
 
     /** The canonical unmodifiable empty set. */
     private static final AnnotationMirrorSet emptySet = unmodifiableSet(Collections.emptySet());
@@ -68,11 +90,14 @@ public class AnnotationMirrorSet
         this.addAll(annos);
     }
 
-    @SuppressWarnings("keyfor:argument") // transferring keys from one map to another
+    @SuppressWarnings("keyfor:assignment") // transferring keys from one set to another
     @Override
     public AnnotationMirrorSet deepCopy() {
         AnnotationMirrorSet result = new AnnotationMirrorSet();
-        result.shadowSet.addAll(shadowSet);
+        if (size != 0) {
+            result.elements = Arrays.copyOf(elements, size);
+            result.size = size;
+        }
         return result;
     }
 
@@ -82,7 +107,7 @@ public class AnnotationMirrorSet
      * @return this set
      */
     public @This AnnotationMirrorSet makeUnmodifiable() {
-        shadowSet = Collections.unmodifiableNavigableSet(shadowSet);
+        unmodifiable = true;
         return this;
     }
 
@@ -93,8 +118,6 @@ public class AnnotationMirrorSet
      * @return a new unmodifiable {@link AnnotationMirrorSet} that contains only {@code value}
      */
     public static AnnotationMirrorSet singleton(AnnotationMirror value) {
-        // The implementation could be more efficient if Collections.singleton returned a
-        // NavigableSet.
         AnnotationMirrorSet result = new AnnotationMirrorSet();
         result.add(value);
         result.makeUnmodifiable();
@@ -123,59 +146,198 @@ public class AnnotationMirrorSet
         return emptySet;
     }
 
+    /// Helper methods
+
+    /**
+     * Throws an exception if this set is unmodifiable.
+     *
+     * @throws UnsupportedOperationException if this set is unmodifiable
+     */
+    private void checkModifiable(
+            @UnknownInitialization(AnnotationMirrorSet.class) AnnotationMirrorSet this) {
+        if (unmodifiable) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Returns the index of {@code anno} in {@link #elements}, or {@code -(insertion point) - 1} if
+     * this set does not contain an annotation that is the same as {@code anno}.
+     *
+     * @param anno an annotation
+     * @return the index of {@code anno}, or a negative number that encodes its insertion point
+     */
+    private int indexOf(
+            @UnknownInitialization(AnnotationMirrorSet.class) AnnotationMirrorSet this,
+            AnnotationMirror anno) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == anno) {
+                return i;
+            }
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = ORDER.compare(elements[mid], anno);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Removes the element at the given index.
+     *
+     * <p>The array slots past {@link #size} are not cleared. That retains references to some
+     * AnnotationMirrors, which is harmless because type factories keep them alive anyway.
+     *
+     * @param index the index of the element to remove
+     */
+    private void removeAt(int index) {
+        checkModifiable();
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Returns the element at the given index, or null if the index is out of range.
+     *
+     * @param index an index, possibly out of range
+     * @return the element at {@code index}, or null
+     */
+    private @Nullable @KeyFor("this") AnnotationMirror elementOrNull(int index) {
+        return (index >= 0 && index < size) ? elements[index] : null;
+    }
+
+    /**
+     * Returns the index of the first element that is greater than {@code anno} (if {@code strict})
+     * or greater than or equal to {@code anno} (otherwise).
+     *
+     * @param anno an annotation
+     * @param strict whether to skip an element that is the same as {@code anno}
+     * @return the index of the first element after (or at) {@code anno}; may be {@link #size}
+     */
+    private int ceilingIndex(AnnotationMirror anno, boolean strict) {
+        int index = indexOf(anno);
+        if (index >= 0) {
+            return strict ? index + 1 : index;
+        }
+        return -(index + 1);
+    }
+
     /// Set methods
 
     @Override
     public int size() {
-        return shadowSet.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return shadowSet.isEmpty();
+        return size == 0;
     }
 
     @Override
     public boolean contains(
             @UnknownInitialization(AnnotationMirrorSet.class) AnnotationMirrorSet this,
             @Nullable Object o) {
-        return o instanceof AnnotationMirror
-                && AnnotationUtils.containsSame(shadowSet, (AnnotationMirror) o);
+        return o instanceof AnnotationMirror && indexOf((AnnotationMirror) o) >= 0;
     }
 
+    @SuppressWarnings("keyfor:override.return") // the iterator returns elements of this set
     @Override
     public Iterator<@KeyFor("this") AnnotationMirror> iterator() {
-        return shadowSet.iterator();
+        return new Iterator<@KeyFor("this") AnnotationMirror>() {
+            /** The index of the next element to return. */
+            private int next = 0;
+
+            /** The index of the last element returned, or -1. */
+            private int last = -1;
+
+            /** The modification count that this iterator expects. */
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public @KeyFor("this") AnnotationMirror next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = next++;
+                return elements[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                removeAt(last);
+                next = last;
+                last = -1;
+                expectedModCount = modCount;
+            }
+        };
     }
 
     @Override
     public Object[] toArray() {
-        return shadowSet.toArray();
+        return Arrays.copyOf(elements, size, Object[].class);
     }
 
     @SuppressWarnings("nullness:toarray.nullable.elements.not.newarray") // delegation
     @Override
     public <@KeyForBottom T> @Nullable T[] toArray(@PolyNull T[] a) {
-        return shadowSet.toArray(a);
+        return Arrays.asList(elements).subList(0, size).toArray(a);
     }
 
-    @SuppressWarnings("keyfor:argument") // delegation
+    @SuppressWarnings("keyfor:assignment") // the annotation becomes a key of this set
     @Override
     public boolean add(
             @UnknownInitialization(AnnotationMirrorSet.class) AnnotationMirrorSet this,
             AnnotationMirror annotationMirror) {
-        if (contains(annotationMirror)) {
+        int index = indexOf(annotationMirror);
+        if (index >= 0) {
             return false;
         }
-        shadowSet.add(annotationMirror);
+        checkModifiable();
+        int insertionPoint = -(index + 1);
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size == 0 ? 2 : size * 2);
+        }
+        System.arraycopy(
+                elements, insertionPoint, elements, insertionPoint + 1, size - insertionPoint);
+        elements[insertionPoint] = annotationMirror;
+        size++;
+        modCount++;
         return true;
     }
 
     @Override
     public boolean remove(@Nullable Object o) {
         if (o instanceof AnnotationMirror) {
-            AnnotationMirror found = AnnotationUtils.getSame(shadowSet, (AnnotationMirror) o);
-            return found != null && shadowSet.remove(found);
+            int index = indexOf((AnnotationMirror) o);
+            if (index >= 0) {
+                removeAt(index);
+                return true;
+            }
         }
         return false;
     }
@@ -203,6 +365,7 @@ public class AnnotationMirrorSet
         return result;
     }
 
+    @SuppressWarnings("keyfor:assignment") // transferring keys from one set to another
     @Override
     public boolean retainAll(Collection<?> c) {
         AnnotationMirrorSet newSet = new AnnotationMirrorSet();
@@ -214,8 +377,11 @@ public class AnnotationMirrorSet
                 newSet.add((AnnotationMirror) o);
             }
         }
-        if (newSet.size() != shadowSet.size()) {
-            shadowSet = newSet;
+        if (newSet.size() != size) {
+            checkModifiable();
+            elements = newSet.elements;
+            size = newSet.size;
+            modCount++;
             return true;
         }
         return false;
@@ -234,12 +400,21 @@ public class AnnotationMirrorSet
 
     @Override
     public void clear() {
-        shadowSet.clear();
+        if (size == 0) {
+            return;
+        }
+        checkModifiable();
+        size = 0;
+        modCount++;
     }
 
     @Override
     public String toString() {
-        return shadowSet.toString();
+        StringJoiner result = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < size; i++) {
+            result.add(String.valueOf(elements[i]));
+        }
+        return result.toString();
     }
 
     @Override
@@ -260,12 +435,8 @@ public class AnnotationMirrorSet
     @Override
     public int hashCode() {
         int result = 0;
-        Iterator<AnnotationMirror> i = iterator();
-        while (i.hasNext()) {
-            AnnotationMirror am = i.next();
-            if (am != null) {
-                result += am.hashCode();
-            }
+        for (int i = 0; i < size; i++) {
+            result += elements[i].hashCode();
         }
         return result;
     }
@@ -280,51 +451,63 @@ public class AnnotationMirrorSet
     })
     @Override
     public Comparator<? super AnnotationMirror> comparator() {
-        return shadowSet.comparator();
+        return ORDER;
     }
 
     @Override
     public @KeyFor("this") AnnotationMirror first() {
-        return shadowSet.first();
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[0];
     }
 
     @Override
     public @KeyFor("this") AnnotationMirror last() {
-        return shadowSet.last();
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[size - 1];
     }
 
-    @SuppressWarnings("keyfor:argument") // delegation
     @Override
     public @Nullable @KeyFor("this") AnnotationMirror lower(AnnotationMirror e) {
-        return shadowSet.lower(e);
+        return elementOrNull(ceilingIndex(e, false) - 1);
     }
 
-    @SuppressWarnings("keyfor:argument") // delegation
     @Override
     public @Nullable @KeyFor("this") AnnotationMirror floor(AnnotationMirror e) {
-        return shadowSet.floor(e);
+        return elementOrNull(ceilingIndex(e, true) - 1);
     }
 
-    @SuppressWarnings("keyfor:argument") // delegation
     @Override
     public @Nullable @KeyFor("this") AnnotationMirror ceiling(AnnotationMirror e) {
-        return shadowSet.ceiling(e);
+        return elementOrNull(ceilingIndex(e, false));
     }
 
-    @SuppressWarnings("keyfor:argument") // delegation
     @Override
     public @Nullable @KeyFor("this") AnnotationMirror higher(AnnotationMirror e) {
-        return shadowSet.higher(e);
+        return elementOrNull(ceilingIndex(e, true));
     }
 
     @Override
     public @Nullable @KeyFor("this") AnnotationMirror pollFirst() {
-        return shadowSet.pollFirst();
+        if (size == 0) {
+            return null;
+        }
+        @KeyFor("this") AnnotationMirror result = elements[0];
+        removeAt(0);
+        return result;
     }
 
     @Override
     public @Nullable @KeyFor("this") AnnotationMirror pollLast() {
-        return shadowSet.pollLast();
+        if (size == 0) {
+            return null;
+        }
+        @KeyFor("this") AnnotationMirror result = elements[size - 1];
+        removeAt(size - 1);
+        return result;
     }
 
     @Override